@@ -0,0 +1,122 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry;
+
+import java.time.Duration;
+
+/**
+ * Decides whether a failed test is retried, in addition to the configured {@linkplain TestRetryTaskExtension#getFilter() filter}.
+ * <p>
+ * A policy is called for each failure that passes the filter, including the failures of retries, with the attempt that failed.
+ * <p>
+ * Policies are called while test events are processed, in the build process.
+ * A policy that throws an exception is ignored for the failure, which is then retried.
+ *
+ * @see TestRetryTaskExtension#getRetryPolicy()
+ */
+@FunctionalInterface
+public interface RetryPolicy {
+
+    /**
+     * Decides how to handle the given failure.
+     *
+     * @param failure the failed test
+     * @return how to handle the failure
+     */
+    Decision decide(Failure failure);
+
+    /**
+     * The ways in which a failed test can be handled.
+     */
+    enum Decision {
+
+        /**
+         * The failed test is retried, as if there was no policy.
+         */
+        RETRY,
+
+        /**
+         * The failed test is not retried, which fails the task.
+         */
+        SKIP,
+
+        /**
+         * All tests of the failed test's class are retried.
+         */
+        RETRY_CLASS
+
+    }
+
+    /**
+     * A failed test.
+     */
+    interface Failure {
+
+        /**
+         * The qualified name of the test class.
+         *
+         * @return the qualified name of the test class
+         */
+        String getClassName();
+
+        /**
+         * The name of the test, as reported by the test framework.
+         *
+         * @return the name of the test
+         */
+        String getTestName();
+
+        /**
+         * The qualified class name of the exception the test failed with.
+         *
+         * @return the qualified class name of the exception
+         */
+        String getExceptionClassName();
+
+        /**
+         * The message of the exception the test failed with, or {@code null} if it has none.
+         *
+         * @return the message of the exception
+         */
+        String getMessage();
+
+        /**
+         * The exception the test failed with.
+         * <p>
+         * Exceptions that cannot be deserialized in the build process are replaced by Gradle with a placeholder,
+         * which keeps the message and stack trace, but not the type, of the original exception.
+         *
+         * @return the exception the test failed with
+         */
+        Throwable getException();
+
+        /**
+         * The number of the attempt that failed, starting with {@code 1} for the initial execution.
+         *
+         * @return the number of the attempt that failed
+         */
+        int getAttempt();
+
+        /**
+         * The time elapsed since the start of the current round of test execution.
+         *
+         * @return the time elapsed since the start of the current round
+         */
+        Duration getElapsedRoundTime();
+
+    }
+
+}
@@ -16,10 +16,13 @@
 package org.gradle.testretry;
 
 import org.gradle.api.Action;
+import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.SetProperty;
 import org.gradle.api.tasks.testing.Test;
 
+import java.time.Duration;
+
 /**
  * Allows configuring test retry mechanics.
  * <p>
@@ -81,6 +84,128 @@ public interface TestRetryTaskExtension {
      */
     Property<Integer> getMaxFailures();
 
+    /**
+     * Whether the current round of test execution should be stopped as soon as {@link #getMaxFailures() maxFailures} is reached.
+     * <p>
+     * Once the number of failed tests in a round reaches the limit, no retry will be attempted.
+     * By default, the round still runs to completion.
+     * With this setting enabled, the remaining tests of the round are not executed,
+     * which saves time when a systemic problem makes a large number of tests fail.
+     * <p>
+     * This setting defaults to {@code false}.
+     * It has no effect if {@link #getMaxFailures() maxFailures} is not set.
+     *
+     * @return whether the current round of test execution should be stopped as soon as maxFailures is reached
+     */
+    Property<Boolean> getStopOnMaxFailures();
+
+    /**
+     * The order in which failed test classes are scheduled in retry rounds.
+     * <p>
+     * Gradle can only be told which test classes to run before all others, so the ranking only has two tiers:
+     * the test classes that the order ranks in the first half run before all others,
+     * and the classes within each tier keep the order in which Gradle discovers them.
+     * This gives faster feedback on retries and, combined with {@link #getStopOnMaxFailures() stopOnMaxFailures},
+     * stops hopeless retry rounds earlier.
+     * <p>
+     * This setting defaults to {@link RetryOrder#DISCOVERY}.
+     *
+     * @return the order in which failed test classes are scheduled in retry rounds
+     * @see RetryOrder
+     */
+    Property<RetryOrder> getRetryOrder();
+
+    /**
+     * The orders in which failed test classes can be scheduled in retry rounds.
+     */
+    enum RetryOrder {
+
+        /**
+         * Test classes are scheduled in the order Gradle discovers them.
+         */
+        DISCOVERY,
+
+        /**
+         * Test classes that took the least time in the previous round are scheduled first.
+         */
+        SHORTEST_FIRST,
+
+        /**
+         * Test classes that most often passed on retry in previous builds are scheduled first.
+         * <p>
+         * The history is kept in the temporary directory of the test task.
+         */
+        FLAKIEST_FIRST
+
+    }
+
+    /**
+     * Whether failed tests should not be retried if their test class changed since the last execution in which all tests passed.
+     * <p>
+     * A test class counts as changed if its class file, or the class file of a class it directly references, differs
+     * from the last execution in which all tests passed.
+     * A failure of such a test is likely caused by the change rather than by flakiness, so retrying it only delays the build.
+     * <p>
+     * This setting defaults to {@code false}.
+     *
+     * @return whether failed tests of changed test classes should not be retried
+     */
+    Property<Boolean> getSkipRetryOfChangedTests();
+
+    /**
+     * Whether test events are forwarded to Gradle on a separate thread.
+     * <p>
+     * Test events are queued and handed to Gradle's result processing, such as the console and report writers,
+     * in order by a single thread, so that the test workers do not wait on slow listeners.
+     * <p>
+     * This setting defaults to {@code false}.
+     *
+     * @return whether test events are forwarded to Gradle on a separate thread
+     */
+    Property<Boolean> getAsyncResultProcessing();
+
+    /**
+     * Whether only a few canaries of large groups of tests that failed for the same reason are retried.
+     * <p>
+     * If at least 10 tests failed with the same root cause, i.e. the same exception type thrown from the same place
+     * outside of assertion libraries and test frameworks, the next round only retries two of them as canaries.
+     * The other tests of the group are retried in the round after the canaries pass.
+     * If the canaries keep failing, the other tests are not retried and fail the build.
+     * <p>
+     * This setting defaults to {@code false}.
+     *
+     * @return whether only canaries of large groups of tests that failed for the same reason are retried
+     */
+    Property<Boolean> getCanaryRetries();
+
+    /**
+     * A policy that decides whether a failed test is retried, in addition to the configured {@linkplain #getFilter() filter}.
+     * <p>
+     * This allows retry decisions that depend on the failure, the attempt or the time already spent.
+     * The policy is part of the task configuration, so it must be serializable to be compatible with the configuration cache.
+     * <p>
+     * By default, no policy is set and all failures that pass the filter are retried.
+     *
+     * @return the policy that decides whether a failed test is retried
+     * @see RetryPolicy
+     */
+    Property<RetryPolicy> getRetryPolicy();
+
+    /**
+     * The maximum time a single test may run before it is considered hanging.
+     * <p>
+     * When a test exceeds the timeout, the current round of test execution is stopped and the test is reported as failed,
+     * so that it is retried.
+     * As the tests that did not run yet in the stopped round are not known, the next round executes them again,
+     * except for the test classes that completed without failures.
+     * <p>
+     * By default, no timeout is set.
+     * This setting has no effect if retrying is disabled.
+     *
+     * @return the maximum time a single test may run before it is considered hanging
+     */
+    Property<Duration> getPerTestTimeout();
+
     /**
      * The filter for specifying which tests may be retried.
      */
@@ -150,9 +275,109 @@ public interface TestRetryTaskExtension {
          */
         SetProperty<String> getExcludeAnnotationClasses();
 
+        /**
+         * The patterns used to include test failures based on the type of the exception.
+         * <p>
+         * The pattern string matches against the qualified class names of the exception, its superclasses
+         * and the exceptions in its chain of causes.
+         * It may contain '*' characters, which match zero or more of any character.
+         * <p>
+         * A failure need only have one exception type matching any of the patterns to be included.
+         * <p>
+         * If no patterns are specified, all failures (that also meet other configured filters) will be included.
+         */
+        SetProperty<String> getIncludeExceptionClasses();
+
+        /**
+         * The patterns used to exclude test failures based on the type of the exception.
+         * <p>
+         * The pattern string matches against the qualified class names of the exception, its superclasses
+         * and the exceptions in its chain of causes.
+         * It may contain '*' characters, which match zero or more of any character.
+         * <p>
+         * A failure need only have one exception type matching any of the patterns to be excluded,
+         * for example {@code java.lang.AssertionError} to not retry failed assertions.
+         * <p>
+         * If no patterns are specified, all failures (that also meet other configured filters) will be included.
+         */
+        SetProperty<String> getExcludeExceptionClasses();
+
+        /**
+         * The regular expressions used to include test failures based on the exception message.
+         * <p>
+         * A failure is included if any part of the message of the exception or of an exception in its chain of causes
+         * matches one of the expressions.
+         * <p>
+         * If no expressions are specified, all failures (that also meet other configured filters) will be included.
+         */
+        SetProperty<String> getIncludeExceptionMessages();
+
     }
 
 
+    /**
+     * The fork options of the test worker JVMs that run the retry rounds.
+     */
+    RetryForkOptions getRetryFork();
+
+    /**
+     * The fork options of the test worker JVMs that run the retry rounds.
+     */
+    void retryFork(Action<? super RetryForkOptions> action);
+
+    /**
+     * Fork options that differ from the ones of the test task in retry rounds,
+     * e.g. to retry tests that fail under memory pressure with a larger heap or in fresh JVMs.
+     * <p>
+     * By default, retry rounds use the fork options of the test task.
+     */
+    interface RetryForkOptions {
+
+        /**
+         * The maximum heap size of the test worker JVMs that run the retry rounds, e.g. {@code "2g"}.
+         * <p>
+         * If not set, the maximum heap size of the test task is used.
+         */
+        Property<String> getMaxHeapSize();
+
+        /**
+         * The JVM arguments to add to the ones of the test task in retry rounds, e.g. garbage collector options.
+         * <p>
+         * By default, no JVM arguments are added.
+         */
+        ListProperty<String> getJvmArgs();
+
+        /**
+         * The maximum number of test classes to execute in a test worker JVM of a retry round before it is restarted.
+         * <p>
+         * If not set, the {@code forkEvery} setting of the test task is used.
+         * Set to {@code 1} to run each retried test class in a fresh JVM.
+         */
+        Property<Long> getForkEvery();
+
+        /**
+         * The maximum number of test worker JVMs that run a retry round in parallel.
+         * <p>
+         * If not set, the {@code maxParallelForks} setting of the test task is used.
+         */
+        Property<Integer> getMaxParallelForks();
+
+        /**
+         * Whether the test worker JVMs of retry rounds share the data of the classes they load via a class data sharing archive,
+         * so that they start faster.
+         * <p>
+         * The archive is kept in the temporary directory of the test task and reused by later retry rounds and builds.
+         * It is created by a retry round that runs in a single test worker JVM,
+         * and the JVM recreates it if it does not match the classpath anymore.
+         * This requires Java 19 or later for the test worker JVMs, as configured by the toolchain or executable of the test task,
+         * and Gradle 6.7 or later. Otherwise, this setting is ignored.
+         * <p>
+         * Defaults to {@code false}.
+         */
+        Property<Boolean> getClassDataSharing();
+
+    }
+
     /**
      * The set of criteria specifying which test classes must be retried as a whole unit
      * if retries are enabled and the test class passes the configured {@linkplain TestRetryTaskExtension#getFilter filter}.
@@ -17,11 +17,14 @@ package org.gradle.testretry.internal.config;
 
 import org.gradle.api.Action;
 import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.SetProperty;
+import org.gradle.testretry.RetryPolicy;
 import org.gradle.testretry.TestRetryTaskExtension;
 
 import javax.inject.Inject;
+import java.time.Duration;
 
 public class DefaultTestRetryTaskExtension implements TestRetryTaskExtension {
 
@@ -29,7 +32,15 @@ public class DefaultTestRetryTaskExtension implements TestRetryTaskExtension {
     private final Property<Boolean> failOnSkippedAfterRetry;
     private final Property<Integer> maxRetries;
     private final Property<Integer> maxFailures;
+    private final Property<Boolean> stopOnMaxFailures;
+    private final Property<RetryOrder> retryOrder;
+    private final Property<Boolean> skipRetryOfChangedTests;
+    private final Property<Boolean> asyncResultProcessing;
+    private final Property<Boolean> canaryRetries;
+    private final Property<RetryPolicy> retryPolicy;
+    private final Property<Duration> perTestTimeout;
     private final Filter filter;
+    private final RetryForkOptions retryForkOptions;
 
     private final ClassRetryCriteria classRetryCriteria;
 
@@ -39,7 +50,15 @@ public class DefaultTestRetryTaskExtension implements TestRetryTaskExtension {
         this.failOnSkippedAfterRetry = objects.property(Boolean.class);
         this.maxRetries = objects.property(Integer.class);
         this.maxFailures = objects.property(Integer.class);
+        this.stopOnMaxFailures = objects.property(Boolean.class);
+        this.retryOrder = objects.property(RetryOrder.class);
+        this.skipRetryOfChangedTests = objects.property(Boolean.class);
+        this.asyncResultProcessing = objects.property(Boolean.class);
+        this.canaryRetries = objects.property(Boolean.class);
+        this.retryPolicy = objects.property(RetryPolicy.class);
+        this.perTestTimeout = objects.property(Duration.class);
         this.filter = new FilterImpl(objects);
+        this.retryForkOptions = new RetryForkOptionsImpl(objects);
         this.classRetryCriteria = new ClassRetryCriteriaImpl(objects);
     }
 
@@ -59,6 +78,38 @@ public class DefaultTestRetryTaskExtension implements TestRetryTaskExtension {
         return maxFailures;
     }
 
+    public Property<Boolean> getStopOnMaxFailures() {
+        return stopOnMaxFailures;
+    }
+
+    public Property<RetryOrder> getRetryOrder() {
+        return retryOrder;
+    }
+
+    public Property<Boolean> getSkipRetryOfChangedTests() {
+        return skipRetryOfChangedTests;
+    }
+
+    @Override
+    public Property<Boolean> getAsyncResultProcessing() {
+        return asyncResultProcessing;
+    }
+
+    @Override
+    public Property<Boolean> getCanaryRetries() {
+        return canaryRetries;
+    }
+
+    @Override
+    public Property<RetryPolicy> getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    @Override
+    public Property<Duration> getPerTestTimeout() {
+        return perTestTimeout;
+    }
+
     @Override
     public void filter(Action<? super Filter> action) {
         action.execute(filter);
@@ -69,6 +120,16 @@ public class DefaultTestRetryTaskExtension implements TestRetryTaskExtension {
         return filter;
     }
 
+    @Override
+    public RetryForkOptions getRetryFork() {
+        return retryForkOptions;
+    }
+
+    @Override
+    public void retryFork(Action<? super RetryForkOptions> action) {
+        action.execute(retryForkOptions);
+    }
+
     @Override
     public ClassRetryCriteria getClassRetry() {
         return classRetryCriteria;
@@ -85,12 +146,18 @@ public class DefaultTestRetryTaskExtension implements TestRetryTaskExtension {
         private final SetProperty<String> includeAnnotationClasses;
         private final SetProperty<String> excludeClasses;
         private final SetProperty<String> excludeAnnotationClasses;
+        private final SetProperty<String> includeExceptionClasses;
+        private final SetProperty<String> excludeExceptionClasses;
+        private final SetProperty<String> includeExceptionMessages;
 
         public FilterImpl(ObjectFactory objects) {
             this.includeClasses = objects.setProperty(String.class);
             this.includeAnnotationClasses = objects.setProperty(String.class);
             this.excludeClasses = objects.setProperty(String.class);
             this.excludeAnnotationClasses = objects.setProperty(String.class);
+            this.includeExceptionClasses = objects.setProperty(String.class);
+            this.excludeExceptionClasses = objects.setProperty(String.class);
+            this.includeExceptionMessages = objects.setProperty(String.class);
         }
 
         @Override
@@ -112,6 +179,63 @@ public class DefaultTestRetryTaskExtension implements TestRetryTaskExtension {
         public SetProperty<String> getExcludeAnnotationClasses() {
             return excludeAnnotationClasses;
         }
+
+        @Override
+        public SetProperty<String> getIncludeExceptionClasses() {
+            return includeExceptionClasses;
+        }
+
+        @Override
+        public SetProperty<String> getExcludeExceptionClasses() {
+            return excludeExceptionClasses;
+        }
+
+        @Override
+        public SetProperty<String> getIncludeExceptionMessages() {
+            return includeExceptionMessages;
+        }
+    }
+
+    private static final class RetryForkOptionsImpl implements RetryForkOptions {
+
+        private final Property<String> maxHeapSize;
+        private final ListProperty<String> jvmArgs;
+        private final Property<Long> forkEvery;
+        private final Property<Integer> maxParallelForks;
+        private final Property<Boolean> classDataSharing;
+
+        public RetryForkOptionsImpl(ObjectFactory objects) {
+            this.maxHeapSize = objects.property(String.class);
+            this.jvmArgs = objects.listProperty(String.class);
+            this.forkEvery = objects.property(Long.class);
+            this.maxParallelForks = objects.property(Integer.class);
+            this.classDataSharing = objects.property(Boolean.class);
+        }
+
+        @Override
+        public Property<String> getMaxHeapSize() {
+            return maxHeapSize;
+        }
+
+        @Override
+        public ListProperty<String> getJvmArgs() {
+            return jvmArgs;
+        }
+
+        @Override
+        public Property<Long> getForkEvery() {
+            return forkEvery;
+        }
+
+        @Override
+        public Property<Integer> getMaxParallelForks() {
+            return maxParallelForks;
+        }
+
+        @Override
+        public Property<Boolean> getClassDataSharing() {
+            return classDataSharing;
+        }
     }
 
     private static final class ClassRetryCriteriaImpl implements ClassRetryCriteria {
@@ -15,6 +15,12 @@
  */
 package org.gradle.testretry.internal.config;
 
+import org.gradle.testretry.RetryPolicy;
+import org.gradle.testretry.TestRetryTaskExtension.RetryOrder;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.List;
 import java.util.Set;
 
 public interface TestRetryTaskExtensionAccessor {
@@ -27,6 +33,22 @@ public interface TestRetryTaskExtensionAccessor {
 
     int getMaxFailures();
 
+    boolean getStopOnMaxFailures();
+
+    RetryOrder getRetryOrder();
+
+    boolean getSkipRetryOfChangedTests();
+
+    boolean getAsyncResultProcessing();
+
+    boolean getCanaryRetries();
+
+    @Nullable
+    RetryPolicy getRetryPolicy();
+
+    @Nullable
+    Duration getPerTestTimeout();
+
     Set<String> getIncludeClasses();
 
     Set<String> getIncludeAnnotationClasses();
@@ -35,6 +57,25 @@ public interface TestRetryTaskExtensionAccessor {
 
     Set<String> getExcludeAnnotationClasses();
 
+    Set<String> getIncludeExceptionClasses();
+
+    Set<String> getExcludeExceptionClasses();
+
+    Set<String> getIncludeExceptionMessages();
+
+    @Nullable
+    String getRetryForkMaxHeapSize();
+
+    List<String> getRetryForkJvmArgs();
+
+    @Nullable
+    Long getRetryForkForkEvery();
+
+    @Nullable
+    Integer getRetryForkMaxParallelForks();
+
+    boolean getRetryForkClassDataSharing();
+
     Set<String> getClassRetryIncludeClasses();
 
     Set<String> getClassRetryIncludeAnnotationClasses();
@@ -15,16 +15,23 @@
  */
 package org.gradle.testretry.internal.config;
 
+import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.provider.ProviderFactory;
 import org.gradle.api.provider.SetProperty;
+import org.gradle.testretry.RetryPolicy;
 import org.gradle.testretry.TestRetryTaskExtension;
+import org.gradle.testretry.TestRetryTaskExtension.RetryOrder;
 import org.gradle.util.GradleVersion;
 
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 
+import static java.util.Collections.emptyList;
 import static java.util.Collections.emptySet;
 import static org.gradle.testretry.internal.config.TestTaskConfigurer.supportsPropertyConventions;
 
@@ -37,6 +44,12 @@ public final class TestRetryTaskExtensionAdapter implements TestRetryTaskExtensi
     private static final int DEFAULT_MAX_FAILURES = 0;
     private static final boolean DEFAULT_FAIL_ON_PASSED_AFTER_RETRY = false;
     private static final boolean DEFAULT_FAIL_ON_SKIPPED_AFTER_RETRY = true;
+    private static final boolean DEFAULT_STOP_ON_MAX_FAILURES = false;
+    private static final RetryOrder DEFAULT_RETRY_ORDER = RetryOrder.DISCOVERY;
+    private static final boolean DEFAULT_SKIP_RETRY_OF_CHANGED_TESTS = false;
+    private static final boolean DEFAULT_ASYNC_RESULT_PROCESSING = false;
+    private static final boolean DEFAULT_CANARY_RETRIES = false;
+    private static final boolean DEFAULT_RETRY_FORK_CLASS_DATA_SHARING = false;
 
     private final ProviderFactory providerFactory;
     private final TestRetryTaskExtension extension;
@@ -58,16 +71,27 @@ public final class TestRetryTaskExtensionAdapter implements TestRetryTaskExtensi
 
     private static void initialize(TestRetryTaskExtension extension, boolean gradle51OrLater) {
         TestRetryTaskExtension.Filter filter = extension.getFilter();
+        TestRetryTaskExtension.RetryForkOptions retryFork = extension.getRetryFork();
         TestRetryTaskExtension.ClassRetryCriteria classRetry = extension.getClassRetry();
         if (gradle51OrLater) {
             extension.getMaxRetries().convention(DEFAULT_MAX_RETRIES);
             extension.getMaxFailures().convention(DEFAULT_MAX_FAILURES);
             extension.getFailOnPassedAfterRetry().convention(DEFAULT_FAIL_ON_PASSED_AFTER_RETRY);
             extension.getFailOnSkippedAfterRetry().convention(DEFAULT_FAIL_ON_SKIPPED_AFTER_RETRY);
+            extension.getStopOnMaxFailures().convention(DEFAULT_STOP_ON_MAX_FAILURES);
+            extension.getRetryOrder().convention(DEFAULT_RETRY_ORDER);
+            extension.getSkipRetryOfChangedTests().convention(DEFAULT_SKIP_RETRY_OF_CHANGED_TESTS);
+            extension.getAsyncResultProcessing().convention(DEFAULT_ASYNC_RESULT_PROCESSING);
+            extension.getCanaryRetries().convention(DEFAULT_CANARY_RETRIES);
             filter.getIncludeClasses().convention(emptySet());
             filter.getIncludeAnnotationClasses().convention(emptySet());
             filter.getExcludeClasses().convention(emptySet());
             filter.getExcludeAnnotationClasses().convention(emptySet());
+            filter.getIncludeExceptionClasses().convention(emptySet());
+            filter.getExcludeExceptionClasses().convention(emptySet());
+            filter.getIncludeExceptionMessages().convention(emptySet());
+            retryFork.getJvmArgs().convention(emptyList());
+            retryFork.getClassDataSharing().convention(DEFAULT_RETRY_FORK_CLASS_DATA_SHARING);
             classRetry.getIncludeClasses().convention(emptySet());
             classRetry.getIncludeAnnotationClasses().convention(emptySet());
         } else {
@@ -76,6 +100,10 @@ public final class TestRetryTaskExtensionAdapter implements TestRetryTaskExtensi
             filter.getIncludeAnnotationClasses().empty();
             filter.getExcludeClasses().empty();
             filter.getExcludeAnnotationClasses().empty();
+            filter.getIncludeExceptionClasses().empty();
+            filter.getExcludeExceptionClasses().empty();
+            filter.getIncludeExceptionMessages().empty();
+            retryFork.getJvmArgs().empty();
             classRetry.getIncludeClasses().empty();
             classRetry.getIncludeAnnotationClasses().empty();
         }
@@ -129,6 +157,43 @@ public final class TestRetryTaskExtensionAdapter implements TestRetryTaskExtensi
         return read(extension.getMaxFailures(), DEFAULT_MAX_FAILURES);
     }
 
+    @Override
+    public boolean getStopOnMaxFailures() {
+        return read(extension.getStopOnMaxFailures(), DEFAULT_STOP_ON_MAX_FAILURES);
+    }
+
+    @Override
+    public RetryOrder getRetryOrder() {
+        return read(extension.getRetryOrder(), DEFAULT_RETRY_ORDER);
+    }
+
+    @Override
+    public boolean getSkipRetryOfChangedTests() {
+        return read(extension.getSkipRetryOfChangedTests(), DEFAULT_SKIP_RETRY_OF_CHANGED_TESTS);
+    }
+
+    @Override
+    public boolean getAsyncResultProcessing() {
+        return read(extension.getAsyncResultProcessing(), DEFAULT_ASYNC_RESULT_PROCESSING);
+    }
+
+    @Override
+    public boolean getCanaryRetries() {
+        return read(extension.getCanaryRetries(), DEFAULT_CANARY_RETRIES);
+    }
+
+    @Nullable
+    @Override
+    public RetryPolicy getRetryPolicy() {
+        return extension.getRetryPolicy().getOrNull();
+    }
+
+    @Nullable
+    @Override
+    public Duration getPerTestTimeout() {
+        return extension.getPerTestTimeout().getOrNull();
+    }
+
     @Override
     public Set<String> getIncludeClasses() {
         return read(extension.getFilter().getIncludeClasses(), emptySet());
@@ -149,6 +214,49 @@ public final class TestRetryTaskExtensionAdapter implements TestRetryTaskExtensi
         return read(extension.getFilter().getExcludeAnnotationClasses(), emptySet());
     }
 
+    @Override
+    public Set<String> getIncludeExceptionClasses() {
+        return read(extension.getFilter().getIncludeExceptionClasses(), emptySet());
+    }
+
+    @Override
+    public Set<String> getExcludeExceptionClasses() {
+        return read(extension.getFilter().getExcludeExceptionClasses(), emptySet());
+    }
+
+    @Override
+    public Set<String> getIncludeExceptionMessages() {
+        return read(extension.getFilter().getIncludeExceptionMessages(), emptySet());
+    }
+
+    @Nullable
+    @Override
+    public String getRetryForkMaxHeapSize() {
+        return extension.getRetryFork().getMaxHeapSize().getOrNull();
+    }
+
+    @Override
+    public List<String> getRetryForkJvmArgs() {
+        return read(extension.getRetryFork().getJvmArgs(), emptyList());
+    }
+
+    @Nullable
+    @Override
+    public Long getRetryForkForkEvery() {
+        return extension.getRetryFork().getForkEvery().getOrNull();
+    }
+
+    @Nullable
+    @Override
+    public Integer getRetryForkMaxParallelForks() {
+        return extension.getRetryFork().getMaxParallelForks().getOrNull();
+    }
+
+    @Override
+    public boolean getRetryForkClassDataSharing() {
+        return read(extension.getRetryFork().getClassDataSharing(), DEFAULT_RETRY_FORK_CLASS_DATA_SHARING);
+    }
+
     @Override
     public Set<String> getClassRetryIncludeClasses() {
         return read(extension.getClassRetry().getIncludeClasses(), emptySet());
@@ -172,4 +280,8 @@ public final class TestRetryTaskExtensionAdapter implements TestRetryTaskExtensi
         return useConventions ? property.get() : property.getOrElse(defaultValue);
     }
 
+    private <T> List<T> read(ListProperty<T> property, List<T> defaultValue) {
+        return useConventions ? property.get() : property.getOrElse(defaultValue);
+    }
+
 }
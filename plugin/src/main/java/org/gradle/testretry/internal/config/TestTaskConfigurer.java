@@ -28,8 +28,11 @@ import org.gradle.api.tasks.testing.Test;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.testretry.TestRetryTaskExtension;
 import org.gradle.testretry.internal.executer.RetryTestExecuter;
+import org.gradle.testretry.internal.testsreader.JarIndexCache;
+import org.gradle.testretry.internal.testsreader.JarIndexCacheService;
 import org.gradle.util.GradleVersion;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -61,8 +64,10 @@ public final class TestTaskConfigurer {
 
         test.getExtensions().add(TestRetryTaskExtension.class, TestRetryTaskExtension.NAME, extension);
 
-        test.doFirst(new ConditionalTaskAction(shouldReplaceTestExecutor, new InitTaskAction(adapter, objectFactory)));
-        test.doLast(new ConditionalTaskAction(shouldReplaceTestExecutor, new FinalizeTaskAction()));
+        Provider<JarIndexCache> jarIndexCache = supportsBuildServices(gradleVersion) ? JarIndexCacheService.register(test) : null;
+
+        test.doFirst(new ConditionalTaskAction(shouldReplaceTestExecutor, new InitTaskAction(adapter, objectFactory, jarIndexCache)));
+        test.doLast(new ConditionalTaskAction(shouldReplaceTestExecutor, new FinalizeTaskAction(adapter)));
     }
 
     @SuppressWarnings("ConcatenationWithEmptyString")
@@ -115,6 +120,10 @@ public final class TestTaskConfigurer {
         return gradleVersion.compareTo(GRADLE_6_1) >= 0;
     }
 
+    private static boolean supportsBuildServices(GradleVersion gradleVersion) {
+        return gradleVersion.compareTo(GRADLE_6_1) >= 0;
+    }
+
     private static boolean callShouldTestRetryPluginBeDeactivated(Test test) {
         Object develocityExtension = test.getExtensions().findByName("develocity");
         if (develocityExtension == null) {
@@ -142,10 +151,19 @@ public final class TestTaskConfigurer {
         }
     }
 
-    private static RetryTestExecuter createRetryTestExecuter(Test task, TestRetryTaskExtensionAdapter extension, ObjectFactory objectFactory) {
+    private static boolean retriesEnabled(TestRetryTaskExtensionAdapter adapter) {
+        return adapter.getMaxRetries() > 0;
+    }
+
+    private static RetryTestExecuter createRetryTestExecuter(
+        Test task,
+        TestRetryTaskExtensionAdapter extension,
+        ObjectFactory objectFactory,
+        JarIndexCache jarIndexCache
+    ) {
         TestExecuter<JvmTestExecutionSpec> delegate = getTestExecuter(task);
         Instantiator instantiator = invoke(task, declaredMethod(AbstractTestTask.class, "getInstantiator"));
-        return new RetryTestExecuter(task, extension, delegate, instantiator, objectFactory, task.getTestClassesDirs().getFiles(), task.getClasspath().getFiles());
+        return new RetryTestExecuter(task, extension, delegate, instantiator, objectFactory, task.getTestClassesDirs().getFiles(), task.getClasspath().getFiles(), jarIndexCache);
     }
 
     private static TestExecuter<JvmTestExecutionSpec> getTestExecuter(Test task) {
@@ -178,8 +196,18 @@ public final class TestTaskConfigurer {
 
     private static class FinalizeTaskAction implements Action<Test> {
 
+        private final TestRetryTaskExtensionAdapter adapter;
+
+        public FinalizeTaskAction(TestRetryTaskExtensionAdapter adapter) {
+            this.adapter = adapter;
+        }
+
         @Override
         public void execute(@NotNull Test task) {
+            if (!retriesEnabled(adapter)) {
+                return;
+            }
+
             TestExecuter<JvmTestExecutionSpec> testExecuter = getTestExecuter(task);
             if (testExecuter instanceof RetryTestExecuter) {
                 ((RetryTestExecuter) testExecuter).failWithNonRetriedTestsIfAny();
@@ -193,15 +221,25 @@ public final class TestTaskConfigurer {
 
         private final TestRetryTaskExtensionAdapter adapter;
         private final ObjectFactory objectFactory;
+        @Nullable
+        private final Provider<JarIndexCache> jarIndexCache;
 
-        public InitTaskAction(TestRetryTaskExtensionAdapter adapter, ObjectFactory objectFactory) {
+        public InitTaskAction(TestRetryTaskExtensionAdapter adapter, ObjectFactory objectFactory, @Nullable Provider<JarIndexCache> jarIndexCache) {
             this.adapter = adapter;
             this.objectFactory = objectFactory;
+            this.jarIndexCache = jarIndexCache;
         }
 
         @Override
         public void execute(@NotNull Test task) {
-            RetryTestExecuter retryTestExecuter = createRetryTestExecuter(task, adapter, objectFactory);
+            if (!retriesEnabled(adapter)) {
+                // leave the test task untouched, so that builds without retries do not pay for resolving the classpath
+                return;
+            }
+
+            // without build services, the listed jars are only shared by the rounds of this execution
+            JarIndexCache cache = jarIndexCache == null ? new JarIndexCache() : jarIndexCache.get();
+            RetryTestExecuter retryTestExecuter = createRetryTestExecuter(task, adapter, objectFactory, cache);
             setTestExecuter(task, retryTestExecuter);
         }
     }
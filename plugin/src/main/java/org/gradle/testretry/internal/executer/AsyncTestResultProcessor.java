@@ -0,0 +1,162 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.executer;
+
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestFailure;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+
+import java.io.Closeable;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Forwards test events to the delegate on a separate thread, in batches.
+ * <p>
+ * This decouples the retry bookkeeping from slow downstream processors such as the console and report writers.
+ * Events are forwarded by a single thread in the order they were received, and the bounded queue makes
+ * the event source wait if the delegate falls too far behind.
+ * A failure of the delegate is rethrown on the next event or on {@link #close()}, which forwards all pending events.
+ */
+final class AsyncTestResultProcessor implements TestResultProcessor, Closeable {
+
+    private static final int CAPACITY = 1024;
+    private static final Runnable END = () -> {
+    };
+
+    private final TestResultProcessor delegate;
+    private final BlockingQueue<Runnable> events = new ArrayBlockingQueue<>(CAPACITY);
+    private final Thread forwarder;
+    private volatile Throwable delegateFailure;
+    private Method failureMethod;
+
+    AsyncTestResultProcessor(TestResultProcessor delegate) {
+        this.delegate = delegate;
+        this.forwarder = new Thread(this::forwardEvents, "Test retry result forwarder");
+        this.forwarder.setDaemon(true);
+        this.forwarder.start();
+    }
+
+    private void forwardEvents() {
+        List<Runnable> batch = new ArrayList<>(CAPACITY);
+        try {
+            while (true) {
+                batch.add(events.take());
+                events.drainTo(batch, CAPACITY - 1);
+                for (Runnable event : batch) {
+                    if (event == END) {
+                        return;
+                    }
+                    // keep draining after a failure so that the event source is never blocked
+                    if (delegateFailure == null) {
+                        try {
+                            event.run();
+                        } catch (Throwable t) {
+                            delegateFailure = t;
+                        }
+                    }
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        enqueue(() -> delegate.started(test, event));
+    }
+
+    @Override
+    public void completed(Object testId, TestCompleteEvent event) {
+        enqueue(() -> delegate.completed(testId, event));
+    }
+
+    @Override
+    public void output(Object testId, TestOutputEvent event) {
+        enqueue(() -> delegate.output(testId, event));
+    }
+
+    @SuppressWarnings("unused")
+    public void failure(Object testId, Throwable throwable) {
+        // see RetryTestResultProcessor#failure(Object, Throwable), needed for Gradle versions older than 7.6
+        enqueue(() -> {
+            try {
+                lookupFailureMethod().invoke(delegate, testId, throwable);
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private Method lookupFailureMethod() throws ReflectiveOperationException {
+        if (failureMethod == null) {
+            failureMethod = delegate.getClass().getMethod("failure", Object.class, Throwable.class);
+        }
+        return failureMethod;
+    }
+
+    @Override
+    public void failure(Object testId, TestFailure result) {
+        enqueue(() -> delegate.failure(testId, result));
+    }
+
+    private void enqueue(Runnable event) {
+        rethrowDelegateFailure();
+        put(event);
+    }
+
+    private void put(Runnable event) {
+        try {
+            events.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void rethrowDelegateFailure() {
+        Throwable failure = delegateFailure;
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (forwarder.isAlive()) {
+            put(END);
+            try {
+                forwarder.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        rethrowDelegateFailure();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.executer;
+
+import org.gradle.testretry.internal.filter.FailureSignatures;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Retries only a few canary tests of large groups of tests that failed for the same reason.
+ * <p>
+ * If many tests fail with the same root cause, e.g. an unavailable database or a port clash, the cause is most likely
+ * systemic, and retrying all of them would just fail them again. The other tests of such a group are held back
+ * until a round in which the canaries pass, and are retried in the next round. If no such round is left,
+ * they are never retried, so they still fail the build.
+ */
+final class FailureSignatureCanaries {
+
+    static final int MIN_GROUP_SIZE = 10;
+    static final int CANARIES_PER_GROUP = 2;
+
+    // signatures of the tests that failed in the current round, by class and test name
+    private final Map<String, Map<String, String>> signatureByTest = new HashMap<>();
+    private final Map<String, HeldBackGroup> heldBackGroupsBySignature = new LinkedHashMap<>();
+
+    void recordFailure(String className, String testName, @Nullable Throwable failure) {
+        if (failure != null) {
+            signatureByTest
+                .computeIfAbsent(className, ignored -> new HashMap<>())
+                .putIfAbsent(testName, FailureSignatures.signature(failure));
+        }
+    }
+
+    /**
+     * Removes all but a few canaries of each large group of tests with the same failure signature from the tests to retry.
+     */
+    void holdBack(TestNames testsToRetry) {
+        Map<String, TestNames> testsBySignature = new HashMap<>();
+        testsToRetry.stream().forEach(entry -> {
+            Map<String, String> signatures = signatureByTest.get(entry.getKey());
+            if (signatures != null) {
+                entry.getValue().forEach(testName -> {
+                    String signature = signatures.get(testName);
+                    // failing canaries keep their group held back, so they are not grouped again
+                    if (signature != null && !heldBackGroupsBySignature.containsKey(signature)) {
+                        testsBySignature.computeIfAbsent(signature, ignored -> new TestNames()).add(entry.getKey(), testName);
+                    }
+                });
+            }
+        });
+        signatureByTest.clear();
+
+        testsBySignature.forEach((signature, tests) -> {
+            if (tests.size() >= MIN_GROUP_SIZE) {
+                HeldBackGroup group = new HeldBackGroup();
+                tests.stream().forEach(entry -> entry.getValue().forEach(testName -> {
+                    if (group.canaryCount < CANARIES_PER_GROUP) {
+                        group.canaries.add(entry.getKey(), testName);
+                        group.canaryCount++;
+                    } else {
+                        group.heldBack.add(entry.getKey(), testName);
+                        testsToRetry.remove(entry.getKey(), testName);
+                    }
+                }));
+                heldBackGroupsBySignature.put(signature, group);
+            }
+        });
+    }
+
+    /**
+     * Adds the held back tests of all groups whose canaries did not fail again to the tests to retry.
+     */
+    void releasePassed(TestNames failedTests) {
+        Iterator<HeldBackGroup> groups = heldBackGroupsBySignature.values().iterator();
+        while (groups.hasNext()) {
+            HeldBackGroup group = groups.next();
+            boolean canariesPassed = group.canaries.stream()
+                .noneMatch(entry -> entry.getValue().stream().anyMatch(testName -> failedTests.contains(entry.getKey(), testName)));
+            if (canariesPassed) {
+                group.heldBack.stream().forEach(entry -> failedTests.addAll(entry.getKey(), entry.getValue()));
+                groups.remove();
+            }
+        }
+    }
+
+    boolean hasHeldBackTests() {
+        return !heldBackGroupsBySignature.isEmpty();
+    }
+
+    private static final class HeldBackGroup {
+
+        private final TestNames canaries = new TestNames();
+        private final TestNames heldBack = new TestNames();
+        private int canaryCount;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.executer;
+
+import org.gradle.testretry.RetryPolicy;
+import org.gradle.testretry.RetryPolicy.Decision;
+import org.gradle.testretry.internal.filter.FailureSignatures;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Calls the user's {@link RetryPolicy}, retrying tests for which it fails or does not decide.
+ */
+final class GuardedRetryPolicy {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GuardedRetryPolicy.class);
+
+    private final RetryPolicy policy;
+
+    GuardedRetryPolicy(RetryPolicy policy) {
+        this.policy = policy;
+    }
+
+    Decision decide(String className, String testName, Throwable exception, int attempt, Duration elapsedRoundTime) {
+        RetryPolicy.Failure failure = new FailureImpl(className, testName, exception, attempt, elapsedRoundTime);
+        try {
+            Decision decision = policy.decide(failure);
+            return decision == null ? Decision.RETRY : decision;
+        } catch (Exception e) {
+            LOGGER.warn("Retry policy failed for test {} of class {}, retrying the test", failure.getTestName(), failure.getClassName(), e);
+            return Decision.RETRY;
+        }
+    }
+
+    private static final class FailureImpl implements RetryPolicy.Failure {
+
+        private final String className;
+        private final String testName;
+        private final Throwable exception;
+        private final int attempt;
+        private final Duration elapsedRoundTime;
+
+        private FailureImpl(String className, String testName, Throwable exception, int attempt, Duration elapsedRoundTime) {
+            this.className = className;
+            this.testName = testName;
+            this.exception = exception;
+            this.attempt = attempt;
+            this.elapsedRoundTime = elapsedRoundTime;
+        }
+
+        @Override
+        public String getClassName() {
+            return className;
+        }
+
+        @Override
+        public String getTestName() {
+            return testName;
+        }
+
+        @Override
+        public String getExceptionClassName() {
+            return FailureSignatures.exceptionClassName(exception);
+        }
+
+        @Override
+        public String getMessage() {
+            return exception.getMessage();
+        }
+
+        @Override
+        public Throwable getException() {
+            return exception;
+        }
+
+        @Override
+        public int getAttempt() {
+            return attempt;
+        }
+
+        @Override
+        public Duration getElapsedRoundTime() {
+            return elapsedRoundTime;
+        }
+    }
+}
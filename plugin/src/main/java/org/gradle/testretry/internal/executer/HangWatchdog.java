@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.executer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects tests that run longer than the per-test timeout.
+ * <p>
+ * Running tests are checked periodically on a separate thread, as a hanging test does not produce any events.
+ * Once a test times out, the given action is run once per round, which is expected to stop the round.
+ */
+final class HangWatchdog implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HangWatchdog.class);
+    private static final long MIN_CHECK_INTERVAL_MILLIS = 100;
+    private static final long MAX_CHECK_INTERVAL_MILLIS = 1000;
+
+    private final long timeoutMillis;
+    private final Runnable onTimeout;
+    private final ScheduledExecutorService executor;
+    private final Map<Object, Long> startTimeByTestId = new ConcurrentHashMap<>();
+    private final Set<Object> timedOutTestIds = ConcurrentHashMap.newKeySet();
+
+    HangWatchdog(Duration timeout, Runnable onTimeout) {
+        this.timeoutMillis = timeout.toMillis();
+        this.onTimeout = onTimeout;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Test retry hang watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkInterval = Math.max(MIN_CHECK_INTERVAL_MILLIS, Math.min(MAX_CHECK_INTERVAL_MILLIS, timeoutMillis / 10));
+        executor.scheduleWithFixedDelay(this::check, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+    }
+
+    void started(Object testId, long startTime) {
+        startTimeByTestId.put(testId, startTime);
+    }
+
+    void completed(Object testId) {
+        startTimeByTestId.remove(testId);
+    }
+
+    boolean hasTimedOutTests() {
+        return !timedOutTestIds.isEmpty();
+    }
+
+    boolean hasTimedOut(Object testId) {
+        return timedOutTestIds.contains(testId);
+    }
+
+    void reset() {
+        startTimeByTestId.clear();
+        timedOutTestIds.clear();
+    }
+
+    private void check() {
+        long now = System.currentTimeMillis();
+        Set<Object> newlyTimedOut = new HashSet<>();
+        startTimeByTestId.forEach((testId, startTime) -> {
+            if (now - startTime > timeoutMillis) {
+                newlyTimedOut.add(testId);
+            }
+        });
+        if (!newlyTimedOut.isEmpty()) {
+            boolean firstTimeout = timedOutTestIds.isEmpty();
+            timedOutTestIds.addAll(newlyTimedOut);
+            newlyTimedOut.forEach(startTimeByTestId::remove);
+            if (firstTimeout) {
+                try {
+                    onTimeout.run();
+                } catch (RuntimeException e) {
+                    // an exception would cancel all further checks
+                    LOGGER.warn("Unable to stop the test execution after a test timed out", e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -21,6 +21,8 @@ import org.gradle.api.internal.tasks.testing.JvmTestExecutionSpec;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.process.JavaForkOptions;
 import org.gradle.util.GradleVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Constructor;
 import java.util.Set;
@@ -29,14 +31,60 @@ enum JvmTestExecutionSpecFactory {
 
     FACTORY_FOR_CURRENT_GRADLE_VERSION {
         @Override
-        JvmTestExecutionSpec createExecutionSpec(TestFramework testFramework, JvmTestExecutionSpec source) {
-            return source.copyWithTestFramework(testFramework);
+        JvmTestExecutionSpec createExecutionSpec(TestFramework testFramework, JvmTestExecutionSpec source, SpecOverrides overrides) {
+            if (overrides.isEmpty()) {
+                return source.copyWithTestFramework(testFramework);
+            }
+
+            try {
+                Class<?> clazz = JvmTestExecutionSpec.class;
+                // This constructor is available in Gradle 8.1+
+                Constructor<?> constructor = clazz.getConstructor(
+                    TestFramework.class,
+                    Iterable.class,
+                    Iterable.class,
+                    FileTree.class,
+                    boolean.class,
+                    FileCollection.class,
+                    String.class,
+                    org.gradle.util.Path.class,
+                    long.class,
+                    JavaForkOptions.class,
+                    int.class,
+                    Set.class,
+                    boolean.class
+                );
+
+                return (JvmTestExecutionSpec) constructor.newInstance(
+                    testFramework,
+                    source.getClasspath(),
+                    source.getModulePath(),
+                    overrides.candidateClassFiles(source),
+                    source.isScanForTestClasses(),
+                    source.getTestClassesDirs(),
+                    source.getPath(),
+                    source.getIdentityPath(),
+                    overrides.forkEvery(source),
+                    overrides.javaForkOptions(source),
+                    overrides.maxParallelForks(source),
+                    overrides.previousFailedTestClasses(source),
+                    clazz.getMethod("getTestIsModule").invoke(source)
+                );
+            } catch (NoSuchMethodException e) {
+                if (!gradleVersionIsAtLeast("8.1")) {
+                    return FACTORY_FOR_GRADLE_OLDER_THAN_V8.createExecutionSpec(testFramework, source, overrides);
+                }
+                LOGGER.warn("Unable to apply the order, candidate classes and fork options of the retry round for {} with this Gradle version - using the ones of the test task", source.getIdentityPath());
+                return source.copyWithTestFramework(testFramework);
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException(e);
+            }
         }
     },
 
     FACTORY_FOR_GRADLE_OLDER_THAN_V8 {
         @Override
-        JvmTestExecutionSpec createExecutionSpec(TestFramework testFramework, JvmTestExecutionSpec source) {
+        JvmTestExecutionSpec createExecutionSpec(TestFramework testFramework, JvmTestExecutionSpec source, SpecOverrides overrides) {
             try {
                 Class<?> clazz = JvmTestExecutionSpec.class;
                 // This constructor is available in Gradle 6.4+
@@ -59,15 +107,15 @@ enum JvmTestExecutionSpecFactory {
                     testFramework,
                     source.getClasspath(),
                     source.getModulePath(),
-                    source.getCandidateClassFiles(),
+                    overrides.candidateClassFiles(source),
                     source.isScanForTestClasses(),
                     source.getTestClassesDirs(),
                     source.getPath(),
                     source.getIdentityPath(),
-                    source.getForkEvery(),
-                    source.getJavaForkOptions(),
-                    source.getMaxParallelForks(),
-                    source.getPreviousFailedTestClasses()
+                    overrides.forkEvery(source),
+                    overrides.javaForkOptions(source),
+                    overrides.maxParallelForks(source),
+                    overrides.previousFailedTestClasses(source)
                 );
             } catch (ReflectiveOperationException e) {
                 throw new RuntimeException(e);
@@ -77,7 +125,7 @@ enum JvmTestExecutionSpecFactory {
 
     FACTORY_FOR_GRADLE_OLDER_THAN_V6_4 {
         @Override
-        JvmTestExecutionSpec createExecutionSpec(TestFramework testFramework, JvmTestExecutionSpec source) {
+        JvmTestExecutionSpec createExecutionSpec(TestFramework testFramework, JvmTestExecutionSpec source, SpecOverrides overrides) {
             try {
                 Class<?> clazz = JvmTestExecutionSpec.class;
                 // This constructor is available in Gradle 4.7+
@@ -98,15 +146,15 @@ enum JvmTestExecutionSpecFactory {
                 return (JvmTestExecutionSpec) constructor.newInstance(
                     testFramework,
                     source.getClasspath(),
-                    source.getCandidateClassFiles(),
+                    overrides.candidateClassFiles(source),
                     source.isScanForTestClasses(),
                     source.getTestClassesDirs(),
                     source.getPath(),
                     source.getIdentityPath(),
-                    source.getForkEvery(),
-                    source.getJavaForkOptions(),
-                    source.getMaxParallelForks(),
-                    source.getPreviousFailedTestClasses()
+                    overrides.forkEvery(source),
+                    overrides.javaForkOptions(source),
+                    overrides.maxParallelForks(source),
+                    overrides.previousFailedTestClasses(source)
                 );
             } catch (ReflectiveOperationException e) {
                 throw new RuntimeException(e);
@@ -115,11 +163,13 @@ enum JvmTestExecutionSpecFactory {
         }
     };
 
-    abstract JvmTestExecutionSpec createExecutionSpec(TestFramework testFramework, JvmTestExecutionSpec source);
+    private static final Logger LOGGER = LoggerFactory.getLogger(JvmTestExecutionSpecFactory.class);
+
+    abstract JvmTestExecutionSpec createExecutionSpec(TestFramework testFramework, JvmTestExecutionSpec source, SpecOverrides overrides);
 
-    static JvmTestExecutionSpec testExecutionSpecFor(TestFramework testFramework, JvmTestExecutionSpec source) {
+    static JvmTestExecutionSpec testExecutionSpecFor(TestFramework testFramework, JvmTestExecutionSpec source, SpecOverrides overrides) {
         JvmTestExecutionSpecFactory factory = getInstance();
-        return factory.createExecutionSpec(testFramework, source);
+        return factory.createExecutionSpec(testFramework, source, overrides);
     }
 
     private static JvmTestExecutionSpecFactory getInstance() {
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.executer;
+
+import org.gradle.api.file.FileTree;
+import org.gradle.api.tasks.util.PatternSet;
+import org.gradle.testretry.internal.testsreader.TestsReader;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+
+/**
+ * Limits the class files Gradle scans for tests in a retry round to the failed test classes and their nested classes.
+ * <p>
+ * Without this, every retry round detects tests in all class files of the test classes dirs, just to run a few failed classes.
+ * Test frameworks that may run tests through other classes, e.g. suites, are not narrowed.
+ */
+final class RetryCandidateClassFiles {
+
+    private RetryCandidateClassFiles() {
+    }
+
+    /**
+     * @return the narrowed candidate class files, or {@code null} if some failed classes are not in the test classes dirs
+     */
+    @Nullable
+    static FileTree narrow(FileTree candidateClassFiles, Set<String> failedClassNames, TestsReader testsReader) {
+        // failures may be reported for classes that are not in the test classes dirs, e.g. Cucumber features
+        // or TestNG's synthetic classes, which only run if the original candidates are scanned
+        if (failedClassNames.isEmpty() || !failedClassNames.stream().allMatch(testsReader::containsTestClassDirClass)) {
+            return null;
+        }
+
+        PatternSet patterns = new PatternSet();
+        failedClassNames.forEach(className -> {
+            String outermostClass = outermostClassName(className).replace('.', '/');
+            patterns.include(outermostClass + ".class", outermostClass + "$*.class");
+        });
+        return candidateClassFiles.matching(patterns);
+    }
+
+    private static String outermostClassName(String className) {
+        int nestedSeparator = className.indexOf('$');
+        return nestedSeparator > 0 ? className.substring(0, nestedSeparator) : className;
+    }
+}
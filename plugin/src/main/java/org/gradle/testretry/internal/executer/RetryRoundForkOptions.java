@@ -0,0 +1,133 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.executer;
+
+import org.gradle.api.JavaVersion;
+import org.gradle.api.internal.tasks.testing.JvmTestExecutionSpec;
+import org.gradle.api.tasks.testing.Test;
+import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.JavaForkOptionsFactory;
+import org.gradle.testretry.internal.config.TestRetryTaskExtensionAccessor;
+import org.gradle.util.GradleVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies the fork options configured for retry rounds to the spec of a retry round.
+ */
+final class RetryRoundForkOptions {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetryRoundForkOptions.class);
+    private static final String CLASS_DATA_ARCHIVE_FILE_NAME = "retry-class-data.jsa";
+    private static final int MIN_CLASS_DATA_SHARING_JAVA_VERSION = 19;
+
+    private final Test task;
+    @Nullable
+    private final String maxHeapSize;
+    private final List<String> jvmArgs;
+    @Nullable
+    private final Long forkEvery;
+    @Nullable
+    private final Integer maxParallelForks;
+    @Nullable
+    private final File classDataArchive;
+
+    // the same for all retry rounds, so only created once
+    private JavaForkOptions javaForkOptions;
+
+    RetryRoundForkOptions(Test task, TestRetryTaskExtensionAccessor extension) {
+        this.task = task;
+        this.maxHeapSize = extension.getRetryForkMaxHeapSize();
+        this.jvmArgs = extension.getRetryForkJvmArgs();
+        this.forkEvery = extension.getRetryForkForkEvery();
+        this.maxParallelForks = extension.getRetryForkMaxParallelForks();
+        this.classDataArchive = extension.getRetryForkClassDataSharing() && supportsClassDataSharing(task)
+            ? new File(task.getTemporaryDir(), CLASS_DATA_ARCHIVE_FILE_NAME)
+            : null;
+    }
+
+    private static boolean supportsClassDataSharing(Test task) {
+        // the Java version of the test worker JVMs is known from the toolchain or executable since Gradle 6.7
+        if (GradleVersion.current().getBaseVersion().compareTo(GradleVersion.version("6.7")) < 0) {
+            LOGGER.warn("Class data sharing for retry rounds requires Gradle 6.7 or later, the setting is ignored");
+            return false;
+        }
+        JavaVersion javaVersion = task.getJavaVersion();
+        if (Integer.parseInt(javaVersion.getMajorVersion()) < MIN_CLASS_DATA_SHARING_JAVA_VERSION) {
+            LOGGER.warn("Class data sharing for retry rounds requires Java {} or later for the test worker JVMs, but they use Java {}, the setting is ignored", MIN_CLASS_DATA_SHARING_JAVA_VERSION, javaVersion.getMajorVersion());
+            return false;
+        }
+        return true;
+    }
+
+    SpecOverrides overridesFor(JvmTestExecutionSpec source) {
+        SpecOverrides overrides = new SpecOverrides();
+        if (maxHeapSize != null || !jvmArgs.isEmpty() || classDataArchive != null) {
+            overrides.javaForkOptions(javaForkOptions(source));
+        }
+        if (forkEvery != null) {
+            overrides.forkEvery(forkEvery);
+        }
+        if (maxParallelForks != null) {
+            overrides.maxParallelForks(maxParallelForks);
+        }
+        return overrides;
+    }
+
+    private JavaForkOptions javaForkOptions(JvmTestExecutionSpec source) {
+        if (javaForkOptions == null) {
+            javaForkOptions = newJavaForkOptions();
+            source.getJavaForkOptions().copyTo(javaForkOptions);
+            if (maxHeapSize != null) {
+                javaForkOptions.setMaxHeapSize(maxHeapSize);
+            }
+            javaForkOptions.jvmArgs(jvmArgs);
+            if (classDataArchive != null) {
+                javaForkOptions.jvmArgs(classDataSharingJvmArgs(source));
+            }
+        }
+        return javaForkOptions;
+    }
+
+    private List<String> classDataSharingJvmArgs(JvmTestExecutionSpec source) {
+        List<String> args = new ArrayList<>();
+        args.add("-XX:SharedArchiveFile=" + classDataArchive.getAbsolutePath());
+        int forks = maxParallelForks == null ? source.getMaxParallelForks() : maxParallelForks;
+        if (forks == 1) {
+            // parallel test worker JVMs would write the archive concurrently, so they only use an existing one
+            args.add("-XX:+AutoCreateSharedArchive");
+        }
+        return args;
+    }
+
+    private JavaForkOptions newJavaForkOptions() {
+        try {
+            // the factory is injected into the test task, and its return type differs between Gradle versions
+            Method getForkOptionsFactory = Test.class.getDeclaredMethod("getForkOptionsFactory");
+            getForkOptionsFactory.setAccessible(true);
+            Object factory = getForkOptionsFactory.invoke(task);
+            return (JavaForkOptions) JavaForkOptionsFactory.class.getMethod("newJavaForkOptions").invoke(factory);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
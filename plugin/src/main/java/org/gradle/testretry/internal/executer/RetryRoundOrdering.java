@@ -0,0 +1,73 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.executer;
+
+import org.gradle.testretry.TestRetryTaskExtension.RetryOrder;
+import org.gradle.testretry.internal.history.TestHistory;
+
+import javax.annotation.Nullable;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Decides which test classes of a retry round Gradle should run first.
+ * <p>
+ * Gradle only distinguishes between classes that failed previously, which run first, and all other classes.
+ * The failed classes are therefore ranked, and the better half is reported as "previously failed" to Gradle.
+ */
+final class RetryRoundOrdering {
+
+    private RetryRoundOrdering() {
+    }
+
+    /**
+     * @return the classes to run first, or {@code null} to keep Gradle's default order
+     */
+    @Nullable
+    static Set<String> classesToRunFirst(RetryOrder order, TestNames failedTests, Map<String, Long> durationByClassName, @Nullable TestHistory history) {
+        Comparator<String> comparator = comparator(order, durationByClassName, history);
+        if (comparator == null) {
+            return null;
+        }
+
+        List<String> ranked = failedTests.stream()
+            .map(Map.Entry::getKey)
+            .sorted(comparator.thenComparing(Comparator.naturalOrder()))
+            .collect(Collectors.toList());
+
+        return new LinkedHashSet<>(ranked.subList(0, (ranked.size() + 1) / 2));
+    }
+
+    @Nullable
+    private static Comparator<String> comparator(RetryOrder order, Map<String, Long> durationByClassName, @Nullable TestHistory history) {
+        switch (order) {
+            case SHORTEST_FIRST:
+                // classes without a recorded duration, e.g. ones that only failed in class setup, are ranked last
+                return Comparator.comparingLong(className -> durationByClassName.getOrDefault(className, Long.MAX_VALUE));
+            case FLAKIEST_FIRST:
+                if (history == null) {
+                    return null;
+                }
+                return Comparator.<String>comparingDouble(history::flakeRate).reversed();
+            default:
+                return null;
+        }
+    }
+}
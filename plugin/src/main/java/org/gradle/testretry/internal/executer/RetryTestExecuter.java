@@ -15,6 +15,7 @@
  */
 package org.gradle.testretry.internal.executer;
 
+import org.gradle.api.file.FileTree;
 import org.gradle.api.internal.tasks.testing.JvmTestExecutionSpec;
 import org.gradle.api.internal.tasks.testing.TestExecuter;
 import org.gradle.api.internal.tasks.testing.TestFramework;
@@ -22,15 +23,23 @@ import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.tasks.testing.Test;
 import org.gradle.internal.reflect.Instantiator;
+import org.gradle.testretry.TestRetryTaskExtension.RetryOrder;
 import org.gradle.testretry.internal.config.TestRetryTaskExtensionAccessor;
 import org.gradle.testretry.internal.executer.framework.TestFrameworkStrategy;
 import org.gradle.testretry.internal.filter.AnnotationInspectorImpl;
 import org.gradle.testretry.internal.filter.ClassRetryMatcher;
+import org.gradle.testretry.internal.filter.ExceptionFilter;
 import org.gradle.testretry.internal.filter.RetryFilter;
+import org.gradle.testretry.internal.history.ClassHashes;
+import org.gradle.testretry.internal.history.TestHistory;
+import org.gradle.testretry.internal.testsreader.JarIndexCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -39,6 +48,9 @@ import static org.gradle.testretry.internal.executer.JvmTestExecutionSpecFactory
 public final class RetryTestExecuter implements TestExecuter<JvmTestExecutionSpec> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RetryTestExecuter.class);
+    private static final String HISTORY_FILE_NAME = "test-retry-history.properties";
+    private static final String CLASS_HASHES_FILE_NAME = "test-retry-class-hashes.properties";
+
     private final TestRetryTaskExtensionAccessor extension;
     private final TestExecuter<JvmTestExecutionSpec> delegate;
     private final Test testTask;
@@ -53,7 +65,8 @@ public final class RetryTestExecuter implements TestExecuter<JvmTestExecutionSpe
         Instantiator instantiator,
         ObjectFactory objectFactory,
         Set<File> testClassesDir,
-        Set<File> resolvedClasspath
+        Set<File> resolvedClasspath,
+        JarIndexCache jarIndexCache
     ) {
         this.extension = extension;
         this.delegate = delegate;
@@ -63,7 +76,8 @@ public final class RetryTestExecuter implements TestExecuter<JvmTestExecutionSpe
             instantiator,
             objectFactory,
             testClassesDir,
-            resolvedClasspath
+            resolvedClasspath,
+            jarIndexCache
         );
     }
 
@@ -86,6 +100,10 @@ public final class RetryTestExecuter implements TestExecuter<JvmTestExecutionSpe
             return;
         }
 
+        if (TestFrameworkStrategy.supportsJavaModules()) {
+            frameworkTemplate.testsReader.addModulePath(spec.getModulePath());
+        }
+
         AnnotationInspectorImpl annotationInspector = new AnnotationInspectorImpl(frameworkTemplate.testsReader);
         RetryFilter filter = new RetryFilter(
             annotationInspector,
@@ -95,22 +113,51 @@ public final class RetryTestExecuter implements TestExecuter<JvmTestExecutionSpe
             extension.getExcludeAnnotationClasses()
         );
 
+        ExceptionFilter exceptionFilter = new ExceptionFilter(
+            extension.getIncludeExceptionClasses(),
+            extension.getExcludeExceptionClasses(),
+            extension.getIncludeExceptionMessages()
+        );
+
         ClassRetryMatcher classRetryMatcher = new ClassRetryMatcher(
             annotationInspector,
             extension.getClassRetryIncludeClasses(),
             extension.getClassRetryIncludeAnnotationClasses()
         );
 
+        AsyncTestResultProcessor asyncTestResultProcessor = extension.getAsyncResultProcessing()
+            ? new AsyncTestResultProcessor(testResultProcessor)
+            : null;
+
         RetryTestResultProcessor retryTestResultProcessor = new RetryTestResultProcessor(
             testFrameworkStrategy,
             filter,
+            exceptionFilter,
+            extension.getRetryPolicy(),
             classRetryMatcher,
             frameworkTemplate.testsReader,
-            testResultProcessor,
+            asyncTestResultProcessor == null ? testResultProcessor : asyncTestResultProcessor,
             maxFailures,
-            failOnSkippedAfterRetry
+            extension.getStopOnMaxFailures(),
+            delegate::stopNow,
+            failOnSkippedAfterRetry,
+            extension.getCanaryRetries(),
+            extension.getPerTestTimeout()
         );
 
+        RetryRoundForkOptions retryForkOptions = new RetryRoundForkOptions(testTask, extension);
+        RetryOrder retryOrder = extension.getRetryOrder();
+        TestHistory history = retryOrder == RetryOrder.FLAKIEST_FIRST
+            ? TestHistory.load(new File(testTask.getTemporaryDir(), HISTORY_FILE_NAME))
+            : null;
+        TestImpactAnalysis impactAnalysis = extension.getSkipRetryOfChangedTests()
+            ? new TestImpactAnalysis(frameworkTemplate.testsReader, ClassHashes.load(new File(testTask.getTemporaryDir(), CLASS_HASHES_FILE_NAME)))
+            : null;
+        Set<String> firstRoundTestClasses = Collections.emptySet();
+        Set<String> firstRoundFailedTestClasses = Collections.emptySet();
+        Set<String> changedTestClasses = new HashSet<>();
+        Set<String> completedTestClasses = new HashSet<>();
+
         int retryCount = 0;
         JvmTestExecutionSpec testExecutionSpec = spec;
 
@@ -120,10 +167,23 @@ public final class RetryTestExecuter implements TestExecuter<JvmTestExecutionSpe
                 RoundResult result = retryTestResultProcessor.getResult();
                 lastResult = result;
 
+                if (retryCount == 0 && (history != null || impactAnalysis != null)) {
+                    // the processor keeps mutating these, so take a snapshot of the first round
+                    firstRoundTestClasses = new HashSet<>(result.testClassesSeenInCurrentRound);
+                    firstRoundFailedTestClasses = classNames(result.failedTests);
+                }
+
                 if (extension.getSimulateNotRetryableTest() || !result.nonRetriedTests.isEmpty()) {
                     // fall through to our doLast action to fail accordingly
                     testTask.setIgnoreFailures(true);
                     break;
+                } else if (result.rerunNotCompletedTests && !result.lastRound) {
+                    // tests that did not run in the incomplete round are not known, so all tests are executed again except for the classes that passed
+                    completedTestClasses.addAll(result.completedTestClasses);
+                    completedTestClasses.removeAll(classNames(result.failedTests));
+                    TestFramework rerunTestFramework = testFrameworkStrategy.createRerunning(frameworkTemplate, spec.getTestFramework(), completedTestClasses);
+                    testExecutionSpec = testExecutionSpecFor(rerunTestFramework, spec, retryForkOptions.overridesFor(spec));
+                    retryTestResultProcessor.reset(++retryCount == maxRetries);
                 } else if (result.failedTests.isEmpty()) {
                     if (retryCount > 0 && !result.hasRetryFilteredFailures && !failOnPassedAfterRetry) {
                         testTask.setIgnoreFailures(true);
@@ -132,16 +192,67 @@ public final class RetryTestExecuter implements TestExecuter<JvmTestExecutionSpe
                 } else if (result.lastRound) {
                     break;
                 } else {
+                    if (impactAnalysis != null) {
+                        Set<String> changedFailedTestClasses = impactAnalysis.changedTestClasses(classNames(result.failedTests));
+                        changedTestClasses.addAll(changedFailedTestClasses);
+                        retryTestResultProcessor.excludeFromRetry(changedFailedTestClasses);
+                        result = retryTestResultProcessor.getResult();
+                        lastResult = result;
+                        if (result.lastRound) {
+                            break;
+                        }
+                    }
+
+                    if (extension.getCanaryRetries() && retryCount + 1 < maxRetries) {
+                        // canaries need a later round to retry the tests held back for them
+                        retryTestResultProcessor.holdBackForCanaries();
+                    }
+
                     TestFramework retryTestFramework = testFrameworkStrategy.createRetrying(frameworkTemplate, spec.getTestFramework(), result.failedTests, result.testClassesSeenInCurrentRound);
-                    testExecutionSpec = testExecutionSpecFor(retryTestFramework, spec);
+                    SpecOverrides overrides = retryForkOptions.overridesFor(spec);
+                    Set<String> classesToRunFirst = RetryRoundOrdering.classesToRunFirst(retryOrder, result.failedTests, result.durationByClassName, history);
+                    if (classesToRunFirst != null) {
+                        overrides.previousFailedTestClasses(classesToRunFirst);
+                    }
+                    if (!testFrameworkStrategy.mayRunTestsThroughOtherClasses(frameworkTemplate.testsReader)) {
+                        FileTree candidateClassFiles = RetryCandidateClassFiles.narrow(spec.getCandidateClassFiles(), classNames(result.failedTests), frameworkTemplate.testsReader);
+                        if (candidateClassFiles != null) {
+                            overrides.candidateClassFiles(candidateClassFiles);
+                        }
+                    }
+                    testExecutionSpec = testExecutionSpecFor(retryTestFramework, spec, overrides);
                     retryTestResultProcessor.reset(++retryCount == maxRetries);
                 }
             }
+
+            if (history != null) {
+                Set<String> finallyFailedTestClasses = retryCount > 0 ? classNames(lastResult.failedTests) : new HashSet<>(firstRoundFailedTestClasses);
+                finallyFailedTestClasses.addAll(changedTestClasses);
+                recordHistory(history, firstRoundTestClasses, firstRoundFailedTestClasses, finallyFailedTestClasses);
+            }
+            if (impactAnalysis != null && lastResult.failedTests.isEmpty() && !lastResult.hasRetryFilteredFailures) {
+                impactAnalysis.recordGreen(firstRoundTestClasses);
+            }
         } finally {
             retryTestResultProcessor.close();
+            if (asyncTestResultProcessor != null) {
+                asyncTestResultProcessor.close();
+            }
         }
     }
 
+    private static void recordHistory(TestHistory history, Set<String> testClasses, Set<String> failedTestClasses, Set<String> finallyFailedTestClasses) {
+        testClasses.forEach(className -> {
+            boolean flaky = failedTestClasses.contains(className) && !finallyFailedTestClasses.contains(className);
+            history.recordExecution(className, flaky);
+        });
+        history.store();
+    }
+
+    private static Set<String> classNames(TestNames testNames) {
+        return testNames.stream().map(Map.Entry::getKey).collect(Collectors.toCollection(HashSet::new));
+    }
+
     public void failWithNonRetriedTestsIfAny() {
         if (extension.getSimulateNotRetryableTest() || hasNonRetriedTests()) {
             throw new IllegalStateException("The following test methods could not be retried, which is unexpected. Please file a bug report at https://github.com/gradle/test-retry-gradle-plugin/issues" +
@@ -19,44 +19,89 @@ import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
 import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.internal.tasks.testing.TestSuiteExecutionException;
 import org.gradle.api.tasks.testing.TestFailure;
 import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.testretry.RetryPolicy;
 import org.gradle.testretry.internal.executer.framework.TestFrameworkStrategy;
 import org.gradle.testretry.internal.filter.ClassRetryMatcher;
+import org.gradle.testretry.internal.filter.ExceptionFilter;
 import org.gradle.testretry.internal.filter.RetryFilter;
 import org.gradle.testretry.internal.testsreader.TestsReader;
 import org.gradle.util.GradleVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.toMap;
+import static org.gradle.api.tasks.testing.TestResult.ResultType.FAILURE;
 import static org.gradle.api.tasks.testing.TestResult.ResultType.SKIPPED;
 
 final class RetryTestResultProcessor implements TestResultProcessor, Closeable {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetryTestResultProcessor.class);
+    private static final Set<String> PROCESS_EXECUTION_FAILURE_CLASS_NAMES = new HashSet<>(Arrays.asList(
+        "org.gradle.process.internal.ExecException",
+        "org.gradle.process.ProcessExecutionException"
+    ));
+
     private final TestFrameworkStrategy testFrameworkStrategy;
     private final RetryFilter filter;
+    private final ExceptionFilter exceptionFilter;
+    private final GuardedRetryPolicy retryPolicy;
     private final ClassRetryMatcher classRetryMatcher;
     private final TestsReader testsReader;
     private final TestResultProcessor delegate;
 
     private final int maxFailures;
+    private final boolean stopOnMaxFailures;
+    private final Runnable stopRound;
     private final boolean failOnSkippedAfterRetry;
+    private final Duration perTestTimeout;
+    private final HangWatchdog hangWatchdog;
     private boolean lastRetry;
+    private int attempt = 1;
+    private long roundStartTime = System.currentTimeMillis();
+    private boolean roundStopped;
     private boolean hasRetryFilteredFailures;
+    private boolean workerProcessFailed;
+    private boolean workerCrashed;
+    // the first round runs all tests, and so does every round after an incomplete round that ran all tests
+    private boolean runningAllTests = true;
     private Method failureMethod;
 
-    private final Map<Object, TestDescriptorInternal> activeDescriptorsById = new HashMap<>();
-    private final Map<Object, Object> parentIdByDescriptorId = new HashMap<>();
+    // both maps only hold descriptors that have started but not completed yet
+    // in start order, so that descriptors left incomplete by a stopped round can be completed children first
+    private final Map<Object, TestDescriptorInternal> activeDescriptorsById = new LinkedHashMap<>();
+    private final Map<Object, Object> classAncestorIdByDescriptorId = new HashMap<>();
+    private final Map<Object, Optional<String>> classToRetryByDescriptorId = new HashMap<>();
+    private final Map<Object, Long> startTimeByTestId = new HashMap<>();
+    private final Map<Object, Object> workerIdByDescriptorId = new HashMap<>();
+
+    // only present with canary retries enabled, so that failure signatures are not computed otherwise
+    @Nullable
+    private final FailureSignatureCanaries canaries;
 
     private final Set<String> testClassesSeenInCurrentRound = new HashSet<>();
+    private final Set<String> completedTestClasses = new HashSet<>();
+    private Map<String, Long> durationByClassName = new HashMap<>();
     private TestNames currentRoundFailedTests = new TestNames();
     private TestNames previousRoundFailedTests = new TestNames();
 
@@ -66,23 +111,42 @@ final class RetryTestResultProcessor implements TestResultProcessor, Closeable {
     RetryTestResultProcessor(
         TestFrameworkStrategy testFrameworkStrategy,
         RetryFilter filter,
+        ExceptionFilter exceptionFilter,
+        @Nullable RetryPolicy retryPolicy,
         ClassRetryMatcher classRetryMatcher,
         TestsReader testsReader,
         TestResultProcessor delegate,
         int maxFailures,
-        boolean failOnSkippedAfterRetry
+        boolean stopOnMaxFailures,
+        Runnable stopRound,
+        boolean failOnSkippedAfterRetry,
+        boolean canaryRetries,
+        @Nullable Duration perTestTimeout
     ) {
         this.testFrameworkStrategy = testFrameworkStrategy;
         this.filter = filter;
+        this.exceptionFilter = exceptionFilter;
+        this.retryPolicy = retryPolicy == null ? null : new GuardedRetryPolicy(retryPolicy);
         this.classRetryMatcher = classRetryMatcher;
         this.testsReader = testsReader;
         this.delegate = delegate;
         this.maxFailures = maxFailures;
+        this.stopOnMaxFailures = stopOnMaxFailures;
+        this.stopRound = stopRound;
         this.failOnSkippedAfterRetry = failOnSkippedAfterRetry;
+        this.canaries = canaryRetries ? new FailureSignatureCanaries() : null;
+        this.perTestTimeout = perTestTimeout;
+        this.hangWatchdog = perTestTimeout == null ? null : new HangWatchdog(perTestTimeout, () -> {
+            LOGGER.warn("Stopping test execution as a test exceeded the configured perTestTimeout of {} - the tests of this round will be executed again", perTestTimeout);
+            stopRound.run();
+        });
     }
 
     @Override
     public void close() {
+        if (hangWatchdog != null) {
+            hangWatchdog.close();
+        }
         if (rootCompleteEvent != null) {
             delegate.completed(rootTestDescriptorId, rootCompleteEvent);
             rootTestDescriptorId = null;
@@ -98,8 +162,15 @@ final class RetryTestResultProcessor implements TestResultProcessor, Closeable {
             delegate.started(descriptor, testStartEvent);
         } else if (!descriptor.getId().equals(rootTestDescriptorId)) {
             activeDescriptorsById.put(descriptor.getId(), descriptor);
-            parentIdByDescriptorId.put(descriptor.getId(), testStartEvent.getParentId());
+            registerClassAncestor(descriptor, testStartEvent.getParentId());
+            registerWorker(descriptor, testStartEvent.getParentId());
             registerSeenTestClass(descriptor);
+            if (!descriptor.isComposite() && descriptor.getClassName() != null) {
+                startTimeByTestId.put(descriptor.getId(), testStartEvent.getStartTime());
+                if (hangWatchdog != null) {
+                    hangWatchdog.started(descriptor.getId(), testStartEvent.getStartTime());
+                }
+            }
             delegate.started(descriptor, testStartEvent);
         }
     }
@@ -107,26 +178,48 @@ final class RetryTestResultProcessor implements TestResultProcessor, Closeable {
     @Override
     public void completed(Object testId, TestCompleteEvent testCompleteEvent) {
         if (testId.equals(rootTestDescriptorId)) {
+            // a test worker that exits unexpectedly fails the suite running it and leaves its tests incomplete
+            workerCrashed = workerProcessFailed && !stoppedByTimeout() && !roundStopped && activeDescriptorsById.size() > 1;
+            if (incompleteRound()) {
+                completeIncompleteTests(testCompleteEvent.getEndTime());
+            } else if (roundStopped) {
+                skipIncompleteTests(testCompleteEvent.getEndTime());
+            }
             // nothing failed in the current round, but we have some un-retried tests
             if (currentRoundFailedTests.isEmpty() && !previousRoundFailedTests.isEmpty()) {
                 ignoreExpectedUnretriedTests();
             }
+            if (canaries != null) {
+                canaries.releasePassed(currentRoundFailedTests);
+            }
             if (lastRun()) {
+                if (canaries != null && canaries.hasHeldBackTests()) {
+                    // no round is left to retry the tests held back for canaries that still failed
+                    hasRetryFilteredFailures = true;
+                }
                 rootCompleteEvent = null;
             } else {
                 rootCompleteEvent = testCompleteEvent;
                 return;
             }
         } else {
+            if (hangWatchdog != null) {
+                hangWatchdog.completed(testId);
+            }
             TestDescriptorInternal descriptor = activeDescriptorsById.remove(testId);
             if (descriptor != null && descriptor.getClassName() != null) {
                 String className = descriptor.getClassName();
                 String name = descriptor.getName();
 
+                Long startTime = startTimeByTestId.remove(testId);
+                if (startTime != null) {
+                    durationByClassName.merge(className, Math.max(0, testCompleteEvent.getEndTime() - startTime), Long::sum);
+                }
+
                 boolean failedInPreviousRound = previousRoundFailedTests.remove(className, name);
                 boolean shouldRetrySkippedTestThatPreviouslyFailed = failedInPreviousRound && testCompleteEvent.getResultType() == SKIPPED && failOnSkippedAfterRetry;
                 if (shouldRetrySkippedTestThatPreviouslyFailed) {
-                    addRetry(descriptor);
+                    addRetry(descriptor, null);
                 }
 
                 // class-level lifecycle failures do not guarantee that all methods that failed in the previous round will be re-executed (e.g. due to class setup failure)
@@ -142,6 +235,7 @@ final class RetryTestResultProcessor implements TestResultProcessor, Closeable {
                 }
 
                 if (isClassDescriptor(descriptor)) {
+                    completedTestClasses.add(className);
                     previousRoundFailedTests.remove(className, n -> {
                         if (isLifecycleFailure(className, n)) {
                             emitFakePassedEvent(descriptor, testCompleteEvent, n);
@@ -152,11 +246,144 @@ final class RetryTestResultProcessor implements TestResultProcessor, Closeable {
                     });
                 }
             }
+            classAncestorIdByDescriptorId.remove(testId);
+            classToRetryByDescriptorId.remove(testId);
+            workerIdByDescriptorId.remove(testId);
         }
 
         delegate.completed(testId, testCompleteEvent);
     }
 
+    private boolean stoppedByTimeout() {
+        return hangWatchdog != null && hangWatchdog.hasTimedOutTests();
+    }
+
+    private boolean incompleteRound() {
+        return stoppedByTimeout() || workerCrashed;
+    }
+
+    /**
+     * Completes the tests left running when the round was stopped or its test worker crashed.
+     * Tests that timed out and the test classes in flight on a crashed test worker are retried.
+     * <p>
+     * Tests that did not run in the incomplete round are not known, so the failed tests of the previous round
+     * that were not retried yet are carried over to the next round. If the round ran all tests,
+     * the next round executes all tests again, except for the test classes that completed without failures.
+     */
+    private void completeIncompleteTests(long endTime) {
+        if (workerCrashed) {
+            retryClassesInFlight();
+        }
+        List<TestDescriptorInternal> incompleteDescriptors = new ArrayList<>(activeDescriptorsById.values());
+        Collections.reverse(incompleteDescriptors);
+        incompleteDescriptors.forEach(descriptor -> {
+            if (descriptor.getId().equals(rootTestDescriptorId)) {
+                return;
+            }
+            if (descriptor.isComposite()) {
+                delegate.completed(descriptor.getId(), new TestCompleteEvent(endTime));
+            } else if (hangWatchdog != null && hangWatchdog.hasTimedOut(descriptor.getId())) {
+                LOGGER.warn("Test {} of class {} did not complete within the configured perTestTimeout", descriptor.getName(), descriptor.getClassName());
+                if (descriptor.getClassName() != null) {
+                    if (filter.canRetry(descriptor.getClassName())) {
+                        addRetry(descriptor, null);
+                    } else {
+                        hasRetryFilteredFailures = true;
+                    }
+                }
+                emitFailure(descriptor.getId(), new TimeoutException("Test did not complete within the configured perTestTimeout of " + perTestTimeout));
+                delegate.completed(descriptor.getId(), new TestCompleteEvent(endTime, FAILURE));
+            } else if (workerCrashed) {
+                delegate.completed(descriptor.getId(), new TestCompleteEvent(endTime, FAILURE));
+            } else {
+                delegate.completed(descriptor.getId(), new TestCompleteEvent(endTime, SKIPPED));
+            }
+            activeDescriptorsById.remove(descriptor.getId());
+        });
+
+        previousRoundFailedTests.stream().forEach(entry -> {
+            if (entry.getValue().isEmpty()) {
+                currentRoundFailedTests.addClass(entry.getKey());
+            } else {
+                currentRoundFailedTests.addAll(entry.getKey(), entry.getValue());
+            }
+        });
+        previousRoundFailedTests = new TestNames();
+    }
+
+    /**
+     * Completes the tests left running when the round was stopped on reaching maxFailures as skipped.
+     * No further round is executed, so nothing is carried over.
+     */
+    private void skipIncompleteTests(long endTime) {
+        List<TestDescriptorInternal> incompleteDescriptors = new ArrayList<>(activeDescriptorsById.values());
+        Collections.reverse(incompleteDescriptors);
+        incompleteDescriptors.forEach(descriptor -> {
+            if (descriptor.getId().equals(rootTestDescriptorId)) {
+                return;
+            }
+            if (descriptor.isComposite()) {
+                delegate.completed(descriptor.getId(), new TestCompleteEvent(endTime));
+            } else {
+                LOGGER.warn("Test {} of class {} was still running when test execution was stopped on reaching maxFailures and is reported as skipped", descriptor.getName(), descriptor.getClassName());
+                delegate.completed(descriptor.getId(), new TestCompleteEvent(endTime, SKIPPED));
+            }
+            activeDescriptorsById.remove(descriptor.getId());
+        });
+    }
+
+    private void retryClassesInFlight() {
+        Map<Object, Set<String>> inFlightClassesByWorkerId = new LinkedHashMap<>();
+        activeDescriptorsById.values().forEach(descriptor -> {
+            // nested classes are retried with their outermost class
+            if (isClassDescriptor(descriptor) && !classAncestorIdByDescriptorId.containsKey(descriptor.getId())) {
+                Object workerId = workerIdByDescriptorId.getOrDefault(descriptor.getId(), rootTestDescriptorId);
+                inFlightClassesByWorkerId.computeIfAbsent(workerId, ignored -> new LinkedHashSet<>()).add(descriptor.getClassName());
+            }
+        });
+
+        inFlightClassesByWorkerId.forEach((workerId, classNames) -> {
+            TestDescriptorInternal worker = activeDescriptorsById.get(workerId);
+            LOGGER.warn("{} exited unexpectedly while executing {} - these test classes are retried", worker == null ? "Test worker" : worker.getDisplayName(), classNames);
+            classNames.forEach(className -> {
+                if (filter.canRetry(className)) {
+                    currentRoundFailedTests.addClass(className);
+                } else {
+                    hasRetryFilteredFailures = true;
+                }
+            });
+        });
+        if (inFlightClassesByWorkerId.isEmpty() && !runningAllTests) {
+            // the failure of the suite cannot be attributed to a test that could be retried
+            hasRetryFilteredFailures = true;
+        }
+    }
+
+    private void registerWorker(TestDescriptorInternal descriptor, @Nullable Object parentId) {
+        // the composite descriptors without a class name right below the root represent the test workers
+        if (rootTestDescriptorId.equals(parentId)) {
+            if (descriptor.isComposite() && descriptor.getClassName() == null) {
+                workerIdByDescriptorId.put(descriptor.getId(), descriptor.getId());
+            }
+        } else if (parentId != null) {
+            Object workerId = workerIdByDescriptorId.get(parentId);
+            if (workerId != null) {
+                workerIdByDescriptorId.put(descriptor.getId(), workerId);
+            }
+        }
+    }
+
+    private void registerClassAncestor(TestDescriptorInternal descriptor, @Nullable Object parentId) {
+        // only descriptors with a class name can be retried as a whole, so the levels in between are skipped
+        TestDescriptorInternal parent = parentId == null ? null : activeDescriptorsById.get(parentId);
+        if (parent != null) {
+            Object classAncestorId = parent.getClassName() != null ? parentId : classAncestorIdByDescriptorId.get(parentId);
+            if (classAncestorId != null) {
+                classAncestorIdByDescriptorId.put(descriptor.getId(), classAncestorId);
+            }
+        }
+    }
+
     private void ignoreExpectedUnretriedTests() {
         // check with the framework implementation if it is expected
         Map<String, Set<String>> expectedUnretriedTests = previousRoundFailedTests.stream()
@@ -181,38 +408,43 @@ final class RetryTestResultProcessor implements TestResultProcessor, Closeable {
         }
     }
 
-    private void addRetry(TestDescriptorInternal descriptor) {
-        Optional<TestDescriptorInternal> classMatchingClassRetryFilter = firstClassMatchingClassRetryFilter(descriptor);
+    private void addRetry(TestDescriptorInternal descriptor, @Nullable Throwable failure) {
+        Optional<String> classMatchingClassRetryFilter = firstClassMatchingClassRetryFilter(descriptor);
         if (classMatchingClassRetryFilter.isPresent()) {
-            currentRoundFailedTests.addClass(classMatchingClassRetryFilter.get().getClassName());
+            currentRoundFailedTests.addClass(classMatchingClassRetryFilter.get());
         } else {
             currentRoundFailedTests.add(descriptor.getClassName(), descriptor.getName());
+            if (canaries != null && !isLifecycleFailure(descriptor.getClassName(), descriptor.getName())) {
+                canaries.recordFailure(descriptor.getClassName(), descriptor.getName(), failure);
+            }
         }
     }
 
-    private Optional<TestDescriptorInternal> firstClassMatchingClassRetryFilter(TestDescriptorInternal descriptor) {
-        // top-level descriptor describes a test worker which cannot match the class retry filter
-        Object parentId = parentIdByDescriptorId.get(descriptor.getId());
-        if (parentId == null) {
-            return Optional.empty();
-        }
-
-        // if the parent is not tracked for any reason, then it also cannot match the class retry filter
-        TestDescriptorInternal parentDescriptor = activeDescriptorsById.get(parentId);
-        if (parentDescriptor == null) {
-            return Optional.empty();
+    private Optional<String> firstClassMatchingClassRetryFilter(TestDescriptorInternal descriptor) {
+        // many failing tests share the same ancestors, so the result is remembered until the descriptor completes
+        Optional<String> classToRetry = classToRetryByDescriptorId.get(descriptor.getId());
+        if (classToRetry == null) {
+            classToRetry = resolveFirstClassMatchingClassRetryFilter(descriptor);
+            classToRetryByDescriptorId.put(descriptor.getId(), classToRetry);
         }
+        return classToRetry;
+    }
 
-        // check if any of the parent classes matches the class retry filter
-        Optional<TestDescriptorInternal> parentClassToRetryEntirely = firstClassMatchingClassRetryFilter(parentDescriptor);
-        if (parentClassToRetryEntirely.isPresent()) {
-            return parentClassToRetryEntirely;
+    private Optional<String> resolveFirstClassMatchingClassRetryFilter(TestDescriptorInternal descriptor) {
+        // check if any of the enclosing classes matches the class retry filter
+        Object classAncestorId = classAncestorIdByDescriptorId.get(descriptor.getId());
+        TestDescriptorInternal classAncestor = classAncestorId == null ? null : activeDescriptorsById.get(classAncestorId);
+        if (classAncestor != null) {
+            Optional<String> ancestorClassToRetryEntirely = firstClassMatchingClassRetryFilter(classAncestor);
+            if (ancestorClassToRetryEntirely.isPresent()) {
+                return ancestorClassToRetryEntirely;
+            }
         }
 
         // check if the class on the current level matches the class retry filter
         String className = descriptor.getClassName();
         if (className != null && classRetryMatcher.retryWholeClass(className)) {
-            return Optional.of(descriptor);
+            return Optional.of(className);
         }
 
         // no classes in the descriptor hierarchy should be retried as a whole
@@ -220,11 +452,10 @@ final class RetryTestResultProcessor implements TestResultProcessor, Closeable {
     }
 
     private void emitFakePassedEvent(TestDescriptorInternal parent, TestCompleteEvent parentEvent, String name) {
-        Object syntheticTestId = new Object();
-        TestDescriptorInternal syntheticDescriptor = new TestDescriptorImpl(syntheticTestId, parent, name);
+        TestDescriptorInternal syntheticDescriptor = new TestDescriptorImpl(parent.getClassName(), parent.getClassDisplayName(), name);
         long timestamp = parentEvent.getEndTime();
         delegate.started(syntheticDescriptor, new TestStartEvent(timestamp, parent.getId()));
-        delegate.completed(syntheticTestId, new TestCompleteEvent(timestamp));
+        delegate.completed(syntheticDescriptor.getId(), new TestCompleteEvent(timestamp));
     }
 
     private boolean isClassDescriptor(TestDescriptorInternal descriptor) {
@@ -241,7 +472,11 @@ final class RetryTestResultProcessor implements TestResultProcessor, Closeable {
         // Gradle 7.6 changed the method signature from failure(Object, Throwable) to failure(Object, TestFailure).
         // To maintain compatibility with older versions, the original method needs to exist and needs to call failure()
         // on the delegate via reflection.
-        failure(testId);
+        recordFailure(testId, throwable);
+        delegateLegacyFailure(testId, throwable);
+    }
+
+    private void delegateLegacyFailure(Object testId, Throwable throwable) {
         try {
             Method failureMethod = lookupFailureMethod();
             failureMethod.invoke(delegate, testId, throwable);
@@ -250,6 +485,14 @@ final class RetryTestResultProcessor implements TestResultProcessor, Closeable {
         }
     }
 
+    private void emitFailure(Object testId, Throwable failure) {
+        if (GradleVersion.current().getBaseVersion().compareTo(GradleVersion.version("7.6")) >= 0) {
+            delegate.failure(testId, TestFailure.fromTestFrameworkFailure(failure));
+        } else {
+            delegateLegacyFailure(testId, failure);
+        }
+    }
+
     private Method lookupFailureMethod() throws ReflectiveOperationException {
         if (failureMethod == null) {
             failureMethod = delegate.getClass().getMethod("failure", Object.class, Throwable.class);
@@ -259,33 +502,110 @@ final class RetryTestResultProcessor implements TestResultProcessor, Closeable {
 
     @Override
     public void failure(Object testId, TestFailure result) {
-        failure(testId);
+        recordFailure(testId, result.getRawFailure());
         delegate.failure(testId, result);
     }
 
-    private void failure(Object testId) {
+    private void recordFailure(Object testId, @Nullable Throwable failure) {
         final TestDescriptorInternal descriptor = activeDescriptorsById.get(testId);
         if (descriptor != null) {
             String className = descriptor.getClassName();
             if (className != null && !className.isEmpty()) {
-                if (filter.canRetry(className)) {
-                    addRetry(descriptor);
+                if (filter.canRetry(className) && exceptionFilter.canRetry(failure)) {
+                    switch (policyDecision(descriptor, failure)) {
+                        case SKIP:
+                            hasRetryFilteredFailures = true;
+                            break;
+                        case RETRY_CLASS:
+                            currentRoundFailedTests.addClass(className);
+                            break;
+                        default:
+                            addRetry(descriptor, failure);
+                    }
                 } else {
                     hasRetryFilteredFailures = true;
                 }
             } else if (isLifecycleFailure(descriptor.getClassName(), descriptor.getName())){
-                addRetry(descriptor);
+                addRetry(descriptor, failure);
+            } else if (descriptor.isComposite() && isWorkerProcessFailure(failure)) {
+                // if tests are left incomplete when the round completes, the test worker running the suite crashed
+                workerProcessFailed = true;
             }
+            stopRoundIfMaxFailuresReached();
+        }
+    }
+
+    private static boolean isWorkerProcessFailure(@Nullable Throwable failure) {
+        // Gradle reports a test worker process that exits unexpectedly as a failure of its suite, caused by the failed process
+        if (!(failure instanceof TestSuiteExecutionException)) {
+            return false;
+        }
+        for (Throwable cause = failure.getCause(); cause != null; cause = cause.getCause()) {
+            if (isProcessExecutionFailure(cause.getClass())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isProcessExecutionFailure(Class<?> exceptionClass) {
+        // matched by name, as the exception type moved out of Gradle's internal API in later versions
+        for (Class<?> type = exceptionClass; type != null; type = type.getSuperclass()) {
+            if (PROCESS_EXECUTION_FAILURE_CLASS_NAMES.contains(type.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private RetryPolicy.Decision policyDecision(TestDescriptorInternal descriptor, @Nullable Throwable failure) {
+        if (retryPolicy == null || failure == null) {
+            return RetryPolicy.Decision.RETRY;
+        }
+        Duration elapsedRoundTime = Duration.ofMillis(System.currentTimeMillis() - roundStartTime);
+        return retryPolicy.decide(descriptor.getClassName(), descriptor.getName(), failure, attempt, elapsedRoundTime);
+    }
+
+    /**
+     * Drops the failed tests of the given classes from the next round, reporting them as failures that cannot be retried.
+     */
+    public void excludeFromRetry(Set<String> classNames) {
+        classNames.forEach(className -> {
+            if (currentRoundFailedTests.removeClass(className)) {
+                hasRetryFilteredFailures = true;
+            }
+        });
+    }
+
+    /**
+     * Drops all but a few canaries of large groups of tests that failed for the same reason from the next round.
+     * The other tests are retried in a later round once their canaries pass.
+     */
+    public void holdBackForCanaries() {
+        if (canaries != null) {
+            canaries.holdBack(currentRoundFailedTests);
+        }
+    }
+
+    private void stopRoundIfMaxFailuresReached() {
+        if (stopOnMaxFailures && !roundStopped && currentRoundFailedTestsExceedsMaxFailures()) {
+            roundStopped = true;
+            LOGGER.warn("Stopping test execution as {} tests failed, reaching the configured maxFailures - the remaining tests of this round are not executed and failed tests will not be retried", currentRoundFailedTests.size());
+            stopRound.run();
         }
     }
 
     private boolean lastRun() {
-        return currentRoundFailedTests.isEmpty()
+        return (currentRoundFailedTests.isEmpty() && !rerunNotCompletedTests())
             || hasNonRetriedTests()
             || lastRetry
             || currentRoundFailedTestsExceedsMaxFailures();
     }
 
+    private boolean rerunNotCompletedTests() {
+        return runningAllTests && incompleteRound();
+    }
+
     private boolean hasNonRetriedTests() {
         return !cleanedUpFailedTestsOfPreviousRound().isEmpty();
     }
@@ -300,7 +620,10 @@ final class RetryTestResultProcessor implements TestResultProcessor, Closeable {
             cleanedUpFailedTestsOfPreviousRound(),
             lastRun(),
             hasRetryFilteredFailures,
-            testClassesSeenInCurrentRound
+            testClassesSeenInCurrentRound,
+            durationByClassName,
+            rerunNotCompletedTests(),
+            completedTestClasses
         );
     }
 
@@ -352,11 +675,24 @@ final class RetryTestResultProcessor implements TestResultProcessor, Closeable {
         }
 
         this.lastRetry = lastRetry;
+        this.runningAllTests = rerunNotCompletedTests();
+        this.attempt++;
+        this.roundStartTime = System.currentTimeMillis();
         this.testClassesSeenInCurrentRound.clear();
+        this.completedTestClasses.clear();
+        this.workerProcessFailed = false;
+        this.workerCrashed = false;
         this.previousRoundFailedTests = currentRoundFailedTests;
         this.currentRoundFailedTests = new TestNames();
+        this.durationByClassName = new HashMap<>();
         this.activeDescriptorsById.clear();
-        this.parentIdByDescriptorId.clear();
+        this.classAncestorIdByDescriptorId.clear();
+        this.classToRetryByDescriptorId.clear();
+        this.startTimeByTestId.clear();
+        this.workerIdByDescriptorId.clear();
+        if (hangWatchdog != null) {
+            hangWatchdog.reset();
+        }
     }
 
 }
@@ -15,6 +15,7 @@
  */
 package org.gradle.testretry.internal.executer;
 
+import java.util.Map;
 import java.util.Set;
 
 final class RoundResult {
@@ -24,18 +25,27 @@ final class RoundResult {
     final boolean lastRound;
     final boolean hasRetryFilteredFailures;
     final Set<String> testClassesSeenInCurrentRound;
+    final Map<String, Long> durationByClassName;
+    final boolean rerunNotCompletedTests;
+    final Set<String> completedTestClasses;
 
     RoundResult(
         TestNames failedTests,
         TestNames nonRetriedTests,
         boolean lastRound,
         boolean hasRetryFilteredFailures,
-        Set<String> testClassesSeenInCurrentRound
+        Set<String> testClassesSeenInCurrentRound,
+        Map<String, Long> durationByClassName,
+        boolean rerunNotCompletedTests,
+        Set<String> completedTestClasses
     ) {
         this.failedTests = failedTests;
         this.nonRetriedTests = nonRetriedTests;
         this.lastRound = lastRound;
         this.hasRetryFilteredFailures = hasRetryFilteredFailures;
         this.testClassesSeenInCurrentRound = testClassesSeenInCurrentRound;
+        this.durationByClassName = durationByClassName;
+        this.rerunNotCompletedTests = rerunNotCompletedTests;
+        this.completedTestClasses = completedTestClasses;
     }
 }
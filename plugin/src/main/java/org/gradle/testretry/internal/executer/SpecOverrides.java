@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.executer;
+
+import org.gradle.api.file.FileTree;
+import org.gradle.api.internal.tasks.testing.JvmTestExecutionSpec;
+import org.gradle.process.JavaForkOptions;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+
+/**
+ * Values of a retry round's {@link JvmTestExecutionSpec} that differ from the original spec.
+ */
+final class SpecOverrides {
+
+    @Nullable
+    private Set<String> previousFailedTestClasses;
+
+    @Nullable
+    private FileTree candidateClassFiles;
+
+    @Nullable
+    private JavaForkOptions javaForkOptions;
+
+    @Nullable
+    private Long forkEvery;
+
+    @Nullable
+    private Integer maxParallelForks;
+
+    SpecOverrides previousFailedTestClasses(Set<String> previousFailedTestClasses) {
+        this.previousFailedTestClasses = previousFailedTestClasses;
+        return this;
+    }
+
+    Set<String> previousFailedTestClasses(JvmTestExecutionSpec source) {
+        return previousFailedTestClasses == null ? source.getPreviousFailedTestClasses() : previousFailedTestClasses;
+    }
+
+    SpecOverrides candidateClassFiles(FileTree candidateClassFiles) {
+        this.candidateClassFiles = candidateClassFiles;
+        return this;
+    }
+
+    FileTree candidateClassFiles(JvmTestExecutionSpec source) {
+        return candidateClassFiles == null ? source.getCandidateClassFiles() : candidateClassFiles;
+    }
+
+    SpecOverrides javaForkOptions(JavaForkOptions javaForkOptions) {
+        this.javaForkOptions = javaForkOptions;
+        return this;
+    }
+
+    JavaForkOptions javaForkOptions(JvmTestExecutionSpec source) {
+        return javaForkOptions == null ? source.getJavaForkOptions() : javaForkOptions;
+    }
+
+    SpecOverrides forkEvery(long forkEvery) {
+        this.forkEvery = forkEvery;
+        return this;
+    }
+
+    long forkEvery(JvmTestExecutionSpec source) {
+        return forkEvery == null ? source.getForkEvery() : forkEvery;
+    }
+
+    SpecOverrides maxParallelForks(int maxParallelForks) {
+        this.maxParallelForks = maxParallelForks;
+        return this;
+    }
+
+    int maxParallelForks(JvmTestExecutionSpec source) {
+        return maxParallelForks == null ? source.getMaxParallelForks() : maxParallelForks;
+    }
+
+    boolean isEmpty() {
+        return previousFailedTestClasses == null
+            && candidateClassFiles == null
+            && javaForkOptions == null
+            && forkEvery == null
+            && maxParallelForks == null;
+    }
+}
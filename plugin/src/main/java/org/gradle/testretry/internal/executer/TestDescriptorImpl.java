@@ -19,15 +19,22 @@ import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
 
 import javax.annotation.Nullable;
 
+/**
+ * Descriptor of a synthetic test, which reports a lifecycle failure of a previous round as passed.
+ * <p>
+ * Each emitted test gets a new instance with its own ID. Instances do not reference the class descriptor,
+ * so that it is not retained after the class completed.
+ */
 final class TestDescriptorImpl implements TestDescriptorInternal {
 
-    private final Object syntheticTestId;
-    private final TestDescriptorInternal parent;
+    private final Object syntheticTestId = new Object();
+    private final String className;
+    private final String classDisplayName;
     private final String testName;
 
-    public TestDescriptorImpl(Object testId, TestDescriptorInternal parent, String testName) {
-        this.syntheticTestId = testId;
-        this.parent = parent;
+    public TestDescriptorImpl(String className, String classDisplayName, String testName) {
+        this.className = className;
+        this.classDisplayName = classDisplayName;
         this.testName = testName;
     }
 
@@ -44,12 +51,12 @@ final class TestDescriptorImpl implements TestDescriptorInternal {
     @Nullable
     @Override
     public String getClassName() {
-        return parent.getClassName();
+        return className;
     }
 
     @Override
     public String getClassDisplayName() {
-        return parent.getClassDisplayName();
+        return classDisplayName;
     }
 
     @Override
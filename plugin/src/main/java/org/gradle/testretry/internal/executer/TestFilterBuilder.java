@@ -18,23 +18,65 @@ package org.gradle.testretry.internal.executer;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
 import org.gradle.api.model.ObjectFactory;
 
+import javax.annotation.Nullable;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the tests to retry and compacts them into as few filter patterns as possible,
+ * as every test discovered in a retry round is matched against all of them.
+ */
 public final class TestFilterBuilder {
 
-    private final DefaultTestFilter filter;
+    private final ObjectFactory objectFactory;
+    private final Set<String> classes = new LinkedHashSet<>();
+    private final Map<String, Set<String>> testsByClass = new LinkedHashMap<>();
+    private final Set<String> excludedClasses = new LinkedHashSet<>();
+    @Nullable
+    private DefaultTestFilter baseFilter;
 
     public TestFilterBuilder(ObjectFactory objectFactory) {
-        this.filter = objectFactory.newInstance(DefaultTestFilter.class);
+        this.objectFactory = objectFactory;
     }
 
     public void test(String className, String methodName) {
-        filter.includeTest(className, methodName);
+        testsByClass.computeIfAbsent(className, ignored -> new LinkedHashSet<>()).add(methodName);
     }
 
     public void clazz(String className) {
-        filter.includeTestsMatching(className); // don't use includeTest with null method - it doesn't work < Gradle 6
+        classes.add(className);
+    }
+
+    /**
+     * Selects all tests of the given filter instead of individual tests, e.g. to run the tests of the task again.
+     */
+    public void includeAllOf(DefaultTestFilter baseFilter) {
+        this.baseFilter = baseFilter;
+    }
+
+    public void excludeClass(String className) {
+        excludedClasses.add(className);
     }
 
     public DefaultTestFilter build() {
+        DefaultTestFilter filter = objectFactory.newInstance(DefaultTestFilter.class);
+        if (baseFilter != null) {
+            baseFilter.getIncludePatterns().forEach(filter::includeTestsMatching);
+            baseFilter.getExcludePatterns().forEach(filter::excludeTestsMatching);
+            filter.setCommandLineIncludePatterns(baseFilter.getCommandLineIncludePatterns());
+            // the excluded classes may cover all tests of the base filter
+            filter.setFailOnNoMatchingTests(false);
+        }
+        excludedClasses.forEach(filter::excludeTestsMatching);
+        classes.forEach(filter::includeTestsMatching); // don't use includeTest with null method - it doesn't work < Gradle 6
+        testsByClass.forEach((className, methodNames) -> {
+            // the class pattern already selects all of its tests
+            if (!classes.contains(className)) {
+                methodNames.forEach(methodName -> filter.includeTest(className, methodName));
+            }
+        });
         return filter;
     }
 }
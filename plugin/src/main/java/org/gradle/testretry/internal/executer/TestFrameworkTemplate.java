@@ -18,6 +18,7 @@ package org.gradle.testretry.internal.executer;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.tasks.testing.Test;
 import org.gradle.internal.reflect.Instantiator;
+import org.gradle.testretry.internal.testsreader.JarIndexCache;
 import org.gradle.testretry.internal.testsreader.TestsReader;
 
 import java.io.File;
@@ -30,11 +31,18 @@ public class TestFrameworkTemplate {
     public final ObjectFactory objectFactory;
     public final TestsReader testsReader;
 
-    public TestFrameworkTemplate(Test task, Instantiator instantiator, ObjectFactory objectFactory, Set<File> testClassesDir, Set<File> resolvedClasspath) {
+    public TestFrameworkTemplate(
+        Test task,
+        Instantiator instantiator,
+        ObjectFactory objectFactory,
+        Set<File> testClassesDir,
+        Set<File> resolvedClasspath,
+        JarIndexCache jarIndexCache
+    ) {
         this.task = task;
         this.instantiator = instantiator;
         this.objectFactory = objectFactory;
-        this.testsReader = new TestsReader(testClassesDir, resolvedClasspath);
+        this.testsReader = new TestsReader(testClassesDir, resolvedClasspath, jarIndexCache);
     }
 
     public TestFilterBuilder filterBuilder() {
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.executer;
+
+import org.gradle.testretry.internal.history.ClassHashes;
+import org.gradle.testretry.internal.testsreader.TestsReader;
+import org.objectweb.asm.ClassReader;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Detects test classes that changed since the last execution in which all tests passed.
+ * <p>
+ * A test class is considered changed if its own class file or the class file of a class it directly references
+ * differs from the recorded one. Classes without a recorded hash are not considered changed.
+ * <p>
+ * The hashes are recorded for all test classes of every green execution. Class files whose stamp did not change since
+ * they were recorded are neither read nor hashed again, so recording mostly costs a file status check per class.
+ */
+final class TestImpactAnalysis {
+
+    private static final int CONSTANT_CLASS = 7;
+    private static final String[] JDK_PACKAGE_PREFIXES = {"java/", "javax/", "jdk/", "sun/", "com/sun/"};
+
+    private final TestsReader testsReader;
+    private final ClassHashes lastGreenHashes;
+    private final Map<String, Optional<String>> currentHashes = new HashMap<>();
+    private final Map<String, Set<String>> referencedClasses = new HashMap<>();
+
+    TestImpactAnalysis(TestsReader testsReader, ClassHashes lastGreenHashes) {
+        this.testsReader = testsReader;
+        this.lastGreenHashes = lastGreenHashes;
+    }
+
+    Set<String> changedTestClasses(Set<String> testClassNames) {
+        return testClassNames.stream()
+            .filter(this::changed)
+            .collect(Collectors.toSet());
+    }
+
+    private boolean changed(String testClassName) {
+        if (changedSinceLastGreen(testClassName)) {
+            return true;
+        }
+        return referencedClasses(testClassName).stream().anyMatch(this::changedSinceLastGreen);
+    }
+
+    private boolean changedSinceLastGreen(String className) {
+        String recorded = lastGreenHashes.get(className);
+        if (recorded == null) {
+            return false;
+        }
+        Optional<String> stamp = testsReader.classFileStamp(className);
+        if (stamp.isPresent() && recorded.equals(lastGreenHashes.get(className, stamp.get()))) {
+            return false;
+        }
+        return currentHash(className).map(hash -> !hash.equals(recorded)).orElse(false);
+    }
+
+    /**
+     * Records the hashes of the given test classes and the classes they reference as the last green state.
+     */
+    void recordGreen(Set<String> testClassNames) {
+        testClassNames.forEach(testClassName -> {
+            boolean unchanged = record(testClassName);
+            Set<String> recordedReferences = unchanged ? lastGreenHashes.getReferences(testClassName) : null;
+            Set<String> references = recordedReferences == null ? referencedClasses(testClassName) : recordedReferences;
+            lastGreenHashes.putReferences(testClassName, references);
+            references.forEach(this::record);
+        });
+        lastGreenHashes.store();
+    }
+
+    /**
+     * @return whether the class file is unchanged since its hash was recorded
+     */
+    private boolean record(String className) {
+        Optional<String> stamp = testsReader.classFileStamp(className);
+        if (!stamp.isPresent()) {
+            return false;
+        }
+        String recorded = lastGreenHashes.get(className, stamp.get());
+        if (recorded != null) {
+            return true;
+        }
+        currentHash(className).ifPresent(hash -> lastGreenHashes.put(className, stamp.get(), hash));
+        return false;
+    }
+
+    private Optional<String> currentHash(String className) {
+        return currentHashes.computeIfAbsent(className, name -> testsReader.readClassBytes(name).map(ClassHashes::hash));
+    }
+
+    private Set<String> referencedClasses(String className) {
+        return referencedClasses.computeIfAbsent(className, name ->
+            testsReader.readClassBytes(name)
+                .map(TestImpactAnalysis::referencedClasses)
+                .orElse(new HashSet<>())
+        );
+    }
+
+    private static Set<String> referencedClasses(byte[] classFile) {
+        ClassReader classReader = new ClassReader(classFile);
+        char[] buffer = new char[classReader.getMaxStringLength()];
+        Set<String> classNames = new HashSet<>();
+        for (int item = 1; item < classReader.getItemCount(); item++) {
+            int offset = classReader.getItem(item);
+            // long and double constants take up two items, the second of which has no offset
+            if (offset > 0 && classFile[offset - 1] == CONSTANT_CLASS) {
+                String internalName = classReader.readUTF8(offset, buffer);
+                // skip array types and JDK classes, which do not change between builds
+                if (!internalName.startsWith("[") && !isJdkClass(internalName)) {
+                    classNames.add(internalName.replace('/', '.'));
+                }
+            }
+        }
+        classNames.remove(classReader.getClassName().replace('/', '.'));
+        return classNames;
+    }
+
+    private static boolean isJdkClass(String internalName) {
+        for (String prefix : JDK_PACKAGE_PREFIXES) {
+            if (internalName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -29,11 +29,21 @@ public final class TestNames {
     private final Map<String, Set<String>> map = new HashMap<>();
 
     public void add(String className, String testName) {
-        map.computeIfAbsent(className, ignored -> new HashSet<>()).add(testName);
+        if (!isClassOnly(className)) {
+            map.computeIfAbsent(className, ignored -> new HashSet<>()).add(testName);
+        }
     }
 
     public void addAll(String className, Set<String> testNames) {
-        map.computeIfAbsent(className, ignored -> new HashSet<>()).addAll(testNames);
+        if (!isClassOnly(className)) {
+            map.computeIfAbsent(className, ignored -> new HashSet<>()).addAll(testNames);
+        }
+    }
+
+    private boolean isClassOnly(String className) {
+        // a class without test names is retried as a whole, which includes all of its tests
+        Set<String> testNames = map.get(className);
+        return testNames != null && testNames.isEmpty();
     }
 
     public void addClass(String className) {
@@ -66,6 +76,15 @@ public final class TestNames {
         }
     }
 
+    public boolean contains(String className, String testName) {
+        Set<String> testNames = map.get(className);
+        return testNames != null && testNames.contains(testName);
+    }
+
+    public boolean removeClass(String className) {
+        return map.remove(className) != null;
+    }
+
     public boolean hasClassesWithoutTestNames() {
         return map.values().stream()
             .anyMatch(Set::isEmpty);
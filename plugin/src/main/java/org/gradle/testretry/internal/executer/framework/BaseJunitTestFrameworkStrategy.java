@@ -37,6 +37,7 @@ abstract class BaseJunitTestFrameworkStrategy implements TestFrameworkStrategy {
     public static final Logger LOGGER = LoggerFactory.getLogger(JunitTestFrameworkStrategy.class);
     private static final Pattern PARAMETERIZED_SUFFIX_PATTERN = Pattern.compile("(?:\\([^)]*?\\))?(?:\\[[^]]*?])*$");
     private static final String ERROR_SYNTHETIC_TESTNG_CLASS_NAME = "UnknownClass";
+    private static final int MIN_FAILED_METHODS_TO_RETRY_WHOLE_CLASS = 10;
     static final Set<String> ERROR_SYNTHETIC_TEST_NAMES = Collections.unmodifiableSet(
         new HashSet<>(Arrays.asList(
             "classMethod",
@@ -96,10 +97,39 @@ abstract class BaseJunitTestFrameworkStrategy implements TestFrameworkStrategy {
                     return;
                 }
 
-                tests.forEach(name -> addPotentiallyParameterizedSuffixed(filters, className, name));
+                Set<String> declaredMethods = testsReader.readTestClassDirClass(className, DeclaredMethodsVisitor::new).orElse(Collections.emptySet());
+                if (mostDeclaredMethodsFailed(tests, declaredMethods)) {
+                    filters.clazz(className);
+                    return;
+                }
+
+                Set<String> invocationSelectingMethods = selectsInvocationsByDeclaringMethod() ? declaredMethods : Collections.emptySet();
+                tests.forEach(name -> addPotentiallyParameterizedSuffixed(filters, className, name, invocationSelectingMethods));
             });
     }
 
+    /**
+     * Whether to retry the whole class instead of its failed methods, which keeps the number of filter patterns
+     * bounded when a large part of a class failed, e.g. due to a broken fixture.
+     * Declared methods include non-test methods, so this underestimates the share of failed tests.
+     */
+    private static boolean mostDeclaredMethodsFailed(Set<String> tests, Set<String> declaredMethods) {
+        long failedDeclaredMethods = tests.stream()
+            .map(BaseJunitTestFrameworkStrategy::stripParameterizedSuffix)
+            .distinct()
+            .filter(declaredMethods::contains)
+            .count();
+        return failedDeclaredMethods >= MIN_FAILED_METHODS_TO_RETRY_WHOLE_CLASS && failedDeclaredMethods * 2 > declaredMethods.size();
+    }
+
+    /**
+     * Whether selecting the method that declares a parameterized or dynamic test runs all of its invocations,
+     * so that filters for the individual invocations are redundant.
+     */
+    protected boolean selectsInvocationsByDeclaringMethod() {
+        return false;
+    }
+
     private boolean processSpockTest(TestFilterBuilder filters, TestsReader testsReader, boolean canRunParameterizedSpockMethods, String className, Set<String> tests) {
         try {
             Optional<Map<String, List<String>>> resultOpt = testsReader.readTestClassDirClass(className, () -> new SpockParameterClassVisitor(tests, testsReader));
@@ -112,7 +142,7 @@ abstract class BaseJunitTestFrameworkStrategy implements TestFrameworkStrategy {
                 if (canRunParameterizedSpockMethods) {
                     result.forEach((test, matches) -> {
                         if (matches.isEmpty()) {
-                            addPotentiallyParameterizedSuffixed(filters, className, test);
+                            addPotentiallyParameterizedSuffixed(filters, className, test, Collections.emptySet());
                         } else {
                             matches.forEach(match -> filters.test(className, match));
                         }
@@ -144,7 +174,7 @@ abstract class BaseJunitTestFrameworkStrategy implements TestFrameworkStrategy {
                 TestNgClassVisitor.ClassInfo result = resultOpt.get();
 
                 tests.forEach(test -> {
-                    addPotentiallyParameterizedSuffixed(filters, className, test);
+                    addPotentiallyParameterizedSuffixed(filters, className, test, Collections.emptySet());
                     result.dependsOn(test).forEach(dependency -> filters.test(className, dependency));
                 });
 
@@ -157,15 +187,23 @@ abstract class BaseJunitTestFrameworkStrategy implements TestFrameworkStrategy {
         return false;
     }
 
-    private void addPotentiallyParameterizedSuffixed(TestFilterBuilder filters, String className, String name) {
+    private void addPotentiallyParameterizedSuffixed(TestFilterBuilder filters, String className, String name, Set<String> declaredMethods) {
         // It's a common pattern to add all the parameters on the end of a literal method name with []
         // The regex takes care of removing trailing (...) or (...)[...], or (...)[...][...] for e.g. the following cases
         // * `test that contains (parentheses)()`
         // * `test that contains (parentheses)(int, int)[1]`
         // * `test(1, true) [0]`
         // * `dynamicContainerTest()[1][1]`
-        String strippedParameterName = PARAMETERIZED_SUFFIX_PATTERN.matcher(name).replaceAll("");
+        String strippedParameterName = stripParameterizedSuffix(name);
         filters.test(className, strippedParameterName);
-        filters.test(className, name);
+        // if the stripped name is a declared method, it already selects all invocations,
+        // so thousands of failed invocations of a data-driven test do not each add a filter pattern
+        if (!declaredMethods.contains(strippedParameterName)) {
+            filters.test(className, name);
+        }
+    }
+
+    private static String stripParameterizedSuffix(String name) {
+        return PARAMETERIZED_SUFFIX_PATTERN.matcher(name).replaceAll("");
     }
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.executer.framework;
+
+import org.gradle.testretry.internal.testsreader.TestsReader;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Class visitor that collects the names of the methods declared by a class, excluding initializers and synthetic methods.
+ */
+final class DeclaredMethodsVisitor extends TestsReader.Visitor<Set<String>> {
+
+    private final Set<String> methodNames = new HashSet<>();
+
+    @Override
+    public Set<String> getResult() {
+        return methodNames;
+    }
+
+    @Override
+    public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+        if ((access & Opcodes.ACC_SYNTHETIC) == 0 && !name.startsWith("<")) {
+            methodNames.add(name);
+        }
+        return null;
+    }
+}
@@ -22,16 +22,21 @@ import org.gradle.api.tasks.testing.junitplatform.JUnitPlatformOptions;
 import org.gradle.testretry.internal.executer.TestFrameworkTemplate;
 import org.gradle.testretry.internal.executer.TestNames;
 import org.gradle.testretry.internal.executer.framework.TestFrameworkProvider.ProviderForCurrentGradleVersion;
+import org.gradle.testretry.internal.testsreader.TestsReader;
 
 import java.lang.reflect.Constructor;
 import java.util.Set;
 
 import static org.gradle.testretry.internal.executer.framework.Junit5TestFrameworkStrategy.Junit5TestFrameworkProvider.testFrameworkProvider;
 import static org.gradle.testretry.internal.executer.framework.TestFrameworkStrategy.gradleVersionIsAtLeast;
+import static org.gradle.testretry.internal.executer.framework.TestFrameworkStrategy.rerunningTestFilter;
 
 final class Junit5TestFrameworkStrategy extends BaseJunitTestFrameworkStrategy {
 
+    private static final String SUITE_ENGINE_CLASS = "org.junit.platform.suite.engine.SuiteTestEngine";
+
     private final boolean isSpock2Used;
+    private Boolean isSuiteEngineUsed;
 
     public Junit5TestFrameworkStrategy(boolean isSpock2Used) {
         this.isSpock2Used = isSpock2Used;
@@ -43,6 +48,25 @@ final class Junit5TestFrameworkStrategy extends BaseJunitTestFrameworkStrategy {
         return testFrameworkProvider(template, testFramework).testFrameworkFor(failedTestsFilter);
     }
 
+    @Override
+    public TestFramework createRerunning(TestFrameworkTemplate template, TestFramework testFramework, Set<String> excludedClasses) {
+        return testFrameworkProvider(template, testFramework).testFrameworkFor(rerunningTestFilter(template, excludedClasses));
+    }
+
+    @Override
+    public boolean mayRunTestsThroughOtherClasses(TestsReader testsReader) {
+        // the classpath does not change between rounds
+        if (isSuiteEngineUsed == null) {
+            isSuiteEngineUsed = testsReader.containsClass(SUITE_ENGINE_CLASS);
+        }
+        return isSuiteEngineUsed;
+    }
+
+    @Override
+    protected boolean selectsInvocationsByDeclaringMethod() {
+        return true;
+    }
+
     static class Junit5TestFrameworkProvider {
 
         static class ProviderForGradleOlderThanV8 implements TestFrameworkProvider {
@@ -28,6 +28,7 @@ import java.util.Set;
 
 import static org.gradle.testretry.internal.executer.framework.JunitTestFrameworkStrategy.JunitTestFrameworkProvider.testFrameworkProvider;
 import static org.gradle.testretry.internal.executer.framework.TestFrameworkStrategy.gradleVersionIsAtLeast;
+import static org.gradle.testretry.internal.executer.framework.TestFrameworkStrategy.rerunningTestFilter;
 
 final class JunitTestFrameworkStrategy extends BaseJunitTestFrameworkStrategy implements TestFrameworkStrategy {
 
@@ -37,6 +38,11 @@ final class JunitTestFrameworkStrategy extends BaseJunitTestFrameworkStrategy im
         return testFrameworkProvider(template, testFramework).testFrameworkFor(failedTestsFilter);
     }
 
+    @Override
+    public TestFramework createRerunning(TestFrameworkTemplate template, TestFramework testFramework, Set<String> excludedClasses) {
+        return testFrameworkProvider(template, testFramework).testFrameworkFor(rerunningTestFilter(template, excludedClasses));
+    }
+
     static class JunitTestFrameworkProvider {
 
         static class ProviderForGradleOlderThanV8 implements TestFrameworkProvider {
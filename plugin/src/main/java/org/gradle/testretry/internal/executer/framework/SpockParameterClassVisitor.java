@@ -40,7 +40,7 @@ import static org.objectweb.asm.Opcodes.ASM7;
 final class SpockParameterClassVisitor extends TestsReader.Visitor<Map<String, List<String>>> {
 
     // A valid Java identifier https://docs.oracle.com/javase/specs/jls/se8/html/jls-3.html#jls-3.8 including methods
-    private static final String SPOCK_PARAM_PATTERN = "#[\\p{L}\\d$_.()&&[^#\\s]]+";
+    private static final Pattern SPOCK_PARAM_PATTERN = Pattern.compile("#[\\p{L}\\d$_.()&&[^#\\s]]+");
     private static final String WILDCARD = ".*";
 
     private final Set<String> failedTestNames;
@@ -78,14 +78,15 @@ final class SpockParameterClassVisitor extends TestsReader.Visitor<Map<String, L
 
     private void addMatchingMethodForFailedTests(Map<String, List<String>> matchingMethodsPerFailedTest, String methodPattern, String methodName) {
         // Replace params in the method name with .*
-        String methodPatternRegex = Arrays.stream(methodPattern.split(SPOCK_PARAM_PATTERN))
+        // compiled once per feature, as a data-driven feature can have thousands of failed iterations
+        Pattern methodPatternRegex = Pattern.compile(Arrays.stream(SPOCK_PARAM_PATTERN.split(methodPattern))
             .map(Pattern::quote)
             .collect(Collectors.joining(WILDCARD))
-            + WILDCARD; // For when no params in name - [iterationNum] implicitly added to end
+            + WILDCARD); // For when no params in name - [iterationNum] implicitly added to end
 
         failedTestNames.forEach(failedTestName -> {
             List<String> matches = matchingMethodsPerFailedTest.computeIfAbsent(failedTestName, ignored -> new ArrayList<>());
-            if (methodPattern.equals(failedTestName) || failedTestName.matches(methodPatternRegex)) {
+            if (methodPattern.equals(failedTestName) || methodPatternRegex.matcher(failedTestName).matches()) {
                 matches.add(methodName);
             }
         });
@@ -17,9 +17,11 @@ package org.gradle.testretry.internal.executer.framework;
 
 import org.gradle.api.internal.tasks.testing.JvmTestExecutionSpec;
 import org.gradle.api.internal.tasks.testing.TestFramework;
+import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
 import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework;
 import org.gradle.api.internal.tasks.testing.junitplatform.JUnitPlatformTestFramework;
 import org.gradle.api.internal.tasks.testing.testng.TestNGTestFramework;
+import org.gradle.testretry.internal.executer.TestFilterBuilder;
 import org.gradle.testretry.internal.executer.TestFrameworkTemplate;
 import org.gradle.testretry.internal.executer.TestNames;
 import org.gradle.testretry.internal.testsreader.TestsReader;
@@ -73,11 +75,31 @@ public interface TestFrameworkStrategy {
         return GradleVersion.current().getBaseVersion().compareTo(GradleVersion.version(version)) >= 0;
     }
 
+    static DefaultTestFilter rerunningTestFilter(TestFrameworkTemplate template, Set<String> excludedClasses) {
+        TestFilterBuilder filter = template.filterBuilder();
+        filter.includeAllOf((DefaultTestFilter) template.task.getFilter());
+        excludedClasses.forEach(filter::excludeClass);
+        return filter.build();
+    }
+
     boolean isLifecycleFailureTest(TestsReader testsReader, String className, String testName);
 
     TestFramework createRetrying(TestFrameworkTemplate template, TestFramework testFramework, TestNames failedTests, Set<String> testClassesSeenInCurrentRound);
 
+    /**
+     * Creates a test framework that runs the tests of the task again, except for the given classes.
+     */
+    TestFramework createRerunning(TestFrameworkTemplate template, TestFramework testFramework, Set<String> excludedClasses);
+
     default boolean isExpectedUnretriedTest(String className, String test) {
         return false;
     }
+
+    /**
+     * Whether tests may be executed through other test classes, e.g. suites, which are not found
+     * if only the class files of the failed test classes are scanned for tests.
+     */
+    default boolean mayRunTestsThroughOtherClasses(TestsReader testsReader) {
+        return false;
+    }
 }
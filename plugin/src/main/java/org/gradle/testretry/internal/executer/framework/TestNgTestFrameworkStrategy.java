@@ -41,6 +41,7 @@ import java.util.Optional;
 import java.util.Set;
 
 import static org.gradle.testretry.internal.executer.framework.TestFrameworkStrategy.gradleVersionIsAtLeast;
+import static org.gradle.testretry.internal.executer.framework.TestFrameworkStrategy.rerunningTestFilter;
 import static org.gradle.testretry.internal.executer.framework.TestNgTestFrameworkStrategy.TestNGTestFrameworkProvider.testFrameworkProvider;
 
 final class TestNgTestFrameworkStrategy implements TestFrameworkStrategy {
@@ -77,6 +78,12 @@ final class TestNgTestFrameworkStrategy implements TestFrameworkStrategy {
             .testFrameworkFor(failedTestsFilter);
     }
 
+    @Override
+    public TestFramework createRerunning(TestFrameworkTemplate template, TestFramework testFramework, Set<String> excludedClasses) {
+        return testFrameworkProvider(template, testFramework)
+            .testFrameworkFor(rerunningTestFilter(template, excludedClasses));
+    }
+
     private DefaultTestFilter testFilterFor(TestNames failedTests, Set<String> testClassesSeenInCurrentRound, TestFrameworkTemplate template) {
         TestFilterBuilder filter = template.filterBuilder();
         addFilters(template.testsReader, failedTests,  testClassesSeenInCurrentRound, filter);
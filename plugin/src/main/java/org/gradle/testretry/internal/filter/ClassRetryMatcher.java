@@ -17,8 +17,10 @@ package org.gradle.testretry.internal.filter;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -37,6 +39,7 @@ public class ClassRetryMatcher {
 
     private final Set<GlobPattern> includeClasses;
     private final Set<GlobPattern> includeAnnotationClasses;
+    private final Map<String, Boolean> retryWholeClassByClassName = new HashMap<>();
 
     public ClassRetryMatcher(
         AnnotationInspector annotationInspector,
@@ -51,6 +54,10 @@ public class ClassRetryMatcher {
     }
 
     public boolean retryWholeClass(String className) {
+        return retryWholeClassByClassName.computeIfAbsent(className, this::matches);
+    }
+
+    private boolean matches(String className) {
         if (anyMatch(includeClasses, className)) {
             return true;
         }
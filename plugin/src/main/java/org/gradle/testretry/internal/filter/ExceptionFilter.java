@@ -0,0 +1,98 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.filter;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Decides whether a test may be retried based on the exception it failed with.
+ */
+public class ExceptionFilter {
+
+    // exceptions that cannot be deserialized in the build process are reported as placeholders, which keep the original type name
+    private static final String PLACEHOLDER_CLASS_NAME_PREFIX = "org.gradle.internal.serialize.Placeholder";
+
+    private final Set<GlobPattern> includeExceptionClasses;
+    private final Set<GlobPattern> excludeExceptionClasses;
+    private final List<Pattern> includeExceptionMessages;
+
+    public ExceptionFilter(
+        Collection<String> includeExceptionClasses,
+        Collection<String> excludeExceptionClasses,
+        Collection<String> includeExceptionMessages
+    ) {
+        this.includeExceptionClasses = includeExceptionClasses.stream().map(GlobPattern::from).collect(Collectors.toSet());
+        this.excludeExceptionClasses = excludeExceptionClasses.stream().map(GlobPattern::from).collect(Collectors.toSet());
+        this.includeExceptionMessages = includeExceptionMessages.stream().map(Pattern::compile).collect(Collectors.toList());
+    }
+
+    public boolean canRetry(@Nullable Throwable failure) {
+        if (failure == null || (includeExceptionClasses.isEmpty() && excludeExceptionClasses.isEmpty() && includeExceptionMessages.isEmpty())) {
+            return true;
+        }
+
+        List<Throwable> causeChain = causeChain(failure);
+        if (!includeExceptionMessages.isEmpty() && causeChain.stream().noneMatch(this::messageMatches)) {
+            return false;
+        }
+
+        Set<String> exceptionClasses = new LinkedHashSet<>();
+        causeChain.forEach(exception -> addExceptionClasses(exception, exceptionClasses));
+        if (!includeExceptionClasses.isEmpty() && !anyMatch(includeExceptionClasses, exceptionClasses)) {
+            return false;
+        }
+
+        return !anyMatch(excludeExceptionClasses, exceptionClasses);
+    }
+
+    private boolean messageMatches(Throwable exception) {
+        String message = exception.getMessage();
+        return message != null && includeExceptionMessages.stream().anyMatch(pattern -> pattern.matcher(message).find());
+    }
+
+    private static List<Throwable> causeChain(Throwable failure) {
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Throwable> causeChain = new ArrayList<>();
+        for (Throwable exception = failure; exception != null && seen.add(exception); exception = exception.getCause()) {
+            causeChain.add(exception);
+        }
+        return causeChain;
+    }
+
+    private static void addExceptionClasses(Throwable exception, Set<String> exceptionClasses) {
+        if (exception.getClass().getName().startsWith(PLACEHOLDER_CLASS_NAME_PREFIX)) {
+            // the placeholder's superclasses do not reflect the original hierarchy, so only the original type is known
+            exceptionClasses.add(FailureSignatures.exceptionClassName(exception));
+        } else {
+            for (Class<?> type = exception.getClass(); type != Object.class; type = type.getSuperclass()) {
+                exceptionClasses.add(type.getName());
+            }
+        }
+    }
+
+    private static boolean anyMatch(Set<GlobPattern> patterns, Set<String> strings) {
+        return patterns.stream().anyMatch(p -> strings.stream().anyMatch(p::matches));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.filter;
+
+/**
+ * Describes failures independently of their messages, which often contain variable details like port numbers.
+ */
+public final class FailureSignatures {
+
+    private static final int SIGNATURE_FRAMES = 3;
+
+    // unrelated assertion failures are thrown from the same frames of the assertion library, so these do not identify a cause
+    private static final String[] IGNORED_FRAME_PREFIXES = {
+        "org.junit.",
+        "junit.",
+        "org.opentest4j.",
+        "org.testng.",
+        "org.spockframework.",
+        "spock.",
+        "org.assertj.",
+        "org.hamcrest.",
+        "com.google.common.truth.",
+        "kotlin.test.",
+        "org.codehaus.groovy.",
+        "groovy.",
+    };
+
+    private FailureSignatures() {
+    }
+
+    /**
+     * The type of the root cause and its top stack frames outside of assertion libraries and test frameworks,
+     * which identify failures with the same cause.
+     */
+    public static String signature(Throwable failure) {
+        Throwable rootCause = failure;
+        while (rootCause.getCause() != null && rootCause.getCause() != rootCause) {
+            rootCause = rootCause.getCause();
+        }
+
+        StringBuilder signature = new StringBuilder(exceptionClassName(rootCause));
+        int frames = 0;
+        for (StackTraceElement frame : rootCause.getStackTrace()) {
+            if (frames == SIGNATURE_FRAMES) {
+                break;
+            }
+            if (!isIgnoredFrame(frame)) {
+                signature.append('|').append(frame.getClassName()).append('.').append(frame.getMethodName());
+                frames++;
+            }
+        }
+        return signature.toString();
+    }
+
+    private static boolean isIgnoredFrame(StackTraceElement frame) {
+        for (String prefix : IGNORED_FRAME_PREFIXES) {
+            if (frame.getClassName().startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The qualified class name of the given exception, which is the original one for exceptions that could not be deserialized.
+     */
+    public static String exceptionClassName(Throwable exception) {
+        // the type name is taken from toString(), as exceptions that cannot be deserialized are reported as placeholders
+        String description = exception.toString();
+        int messageStart = description.indexOf(':');
+        return messageStart < 0 ? description : description.substring(0, messageStart);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Content hashes of class files, as recorded by the last test task execution in which all tests passed.
+ * <p>
+ * Each hash is recorded with a stamp of the file it was read from, and test classes are recorded with the classes they reference,
+ * so that unchanged files do not need to be read and hashed again.
+ * <p>
+ * Like {@link TestHistory}, the store is best effort: if it cannot be read or written, it is treated as empty.
+ */
+public final class ClassHashes {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClassHashes.class);
+    // not a valid start of a class name, so references cannot clash with hashes
+    private static final String REFERENCES_PREFIX = "@references.";
+    private static final String STAMP_SEPARATOR = " ";
+
+    private final File file;
+    private final Properties hashByClassName = new Properties();
+
+    private ClassHashes(File file) {
+        this.file = file;
+    }
+
+    public static ClassHashes load(File file) {
+        ClassHashes hashes = new ClassHashes(file);
+        if (file.isFile()) {
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                hashes.hashByClassName.load(in);
+            } catch (IOException e) {
+                LOGGER.warn("Unable to read class hashes from {}, ignoring them", file, e);
+                hashes.hashByClassName.clear();
+            }
+        }
+        return hashes;
+    }
+
+    public static String hash(byte[] classFile) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(classFile);
+            return new BigInteger(1, digest).toString(16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Nullable
+    public String get(String className) {
+        String value = hashByClassName.getProperty(className);
+        if (value == null) {
+            return null;
+        }
+        int separator = value.indexOf(STAMP_SEPARATOR);
+        return separator < 0 ? value : value.substring(separator + 1);
+    }
+
+    /**
+     * Returns the recorded hash of the class if it was read from a file with the given stamp.
+     */
+    @Nullable
+    public String get(String className, String stamp) {
+        String value = hashByClassName.getProperty(className);
+        return value != null && value.startsWith(stamp + STAMP_SEPARATOR) ? value.substring(stamp.length() + 1) : null;
+    }
+
+    /**
+     * Records the hash of a class, keeping the hashes of other classes.
+     */
+    public void put(String className, String stamp, String hash) {
+        hashByClassName.setProperty(className, stamp + STAMP_SEPARATOR + hash);
+    }
+
+    @Nullable
+    public Set<String> getReferences(String className) {
+        String value = hashByClassName.getProperty(REFERENCES_PREFIX + className);
+        if (value == null) {
+            return null;
+        }
+        return value.isEmpty() ? Collections.emptySet() : new HashSet<>(Arrays.asList(value.split(",")));
+    }
+
+    public void putReferences(String className, Set<String> referencedClassNames) {
+        hashByClassName.setProperty(REFERENCES_PREFIX + className, String.join(",", referencedClassNames));
+    }
+
+    public void store() {
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            try (OutputStream out = Files.newOutputStream(file.toPath())) {
+                hashByClassName.store(out, null);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write class hashes to {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * How often test classes executed by a test task turned out to be flaky, across builds.
+ * <p>
+ * The history is best effort: if it cannot be read or written, it is treated as empty.
+ */
+public final class TestHistory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestHistory.class);
+
+    private final File file;
+    private final Map<String, ClassHistory> historyByClassName = new HashMap<>();
+
+    private TestHistory(File file) {
+        this.file = file;
+    }
+
+    public static TestHistory load(File file) {
+        TestHistory history = new TestHistory(file);
+        if (file.isFile()) {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                properties.load(in);
+            } catch (IOException e) {
+                LOGGER.warn("Unable to read test history from {}, ignoring it", file, e);
+                return history;
+            }
+            properties.stringPropertyNames().forEach(className -> {
+                ClassHistory classHistory = ClassHistory.parse(properties.getProperty(className));
+                if (classHistory != null) {
+                    history.historyByClassName.put(className, classHistory);
+                }
+            });
+        }
+        return history;
+    }
+
+    /**
+     * The fraction of recorded executions of the given class in which the class failed and then passed on retry.
+     */
+    public double flakeRate(String className) {
+        ClassHistory classHistory = historyByClassName.get(className);
+        return classHistory == null ? 0 : (double) classHistory.flakyExecutions / classHistory.executions;
+    }
+
+    public void recordExecution(String className, boolean flaky) {
+        ClassHistory classHistory = historyByClassName.computeIfAbsent(className, ignored -> new ClassHistory());
+        classHistory.executions++;
+        if (flaky) {
+            classHistory.flakyExecutions++;
+        }
+    }
+
+    public void store() {
+        Properties properties = new Properties();
+        historyByClassName.forEach((className, classHistory) -> properties.setProperty(className, classHistory.toString()));
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            try (OutputStream out = Files.newOutputStream(file.toPath())) {
+                properties.store(out, null);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write test history to {}", file, e);
+        }
+    }
+
+    private static final class ClassHistory {
+
+        private int executions;
+        private int flakyExecutions;
+
+        @Nullable
+        private static ClassHistory parse(String value) {
+            int separator = value.indexOf(',');
+            if (separator < 0) {
+                return null;
+            }
+            try {
+                ClassHistory classHistory = new ClassHistory();
+                classHistory.executions = Integer.parseInt(value.substring(0, separator));
+                classHistory.flakyExecutions = Integer.parseInt(value.substring(separator + 1));
+                return classHistory.executions > 0 ? classHistory : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return executions + "," + flakyExecutions;
+        }
+    }
+}
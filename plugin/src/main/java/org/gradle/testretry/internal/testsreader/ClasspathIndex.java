@@ -0,0 +1,140 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.testsreader;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the class files available on the classpath and module path.
+ * <p>
+ * The entries of all JARs are indexed once, so that looking up a class does not have to open every JAR.
+ * The entries of unchanged JARs are reused by the test tasks of a build, see {@link JarIndexCache}.
+ * Directories are not indexed, but checked in classpath order for each lookup.
+ */
+final class ClasspathIndex {
+
+    private static final String MODULE_DESCRIPTOR = "module-info.class";
+
+    private final List<Root> directories = new ArrayList<>();
+    private final Map<String, Root> jarsByEntryName = new HashMap<>();
+    private final Map<String, String> versionedEntryNames = new HashMap<>();
+
+    private ClasspathIndex() {
+    }
+
+    static ClasspathIndex of(Iterable<File> classpath, Iterable<File> modulePath, JarIndexCache cache) {
+        Set<File> roots = new LinkedHashSet<>();
+        classpath.forEach(roots::add);
+        modulePath.forEach(entry -> addModulePathEntry(entry, roots));
+
+        ClasspathIndex index = new ClasspathIndex();
+        int position = 0;
+        for (File root : roots) {
+            if (root.isDirectory()) {
+                index.directories.add(new Root(root, position++));
+            } else if (root.isFile() && root.getName().endsWith(".jar")) {
+                index.indexJar(new Root(root, position++), cache);
+            }
+        }
+        return index;
+    }
+
+    private static void addModulePathEntry(File entry, Set<File> roots) {
+        if (entry.isDirectory() && !new File(entry, MODULE_DESCRIPTOR).isFile()) {
+            // a directory without a module descriptor is a directory of modules (modular JARs or exploded modules)
+            File[] modules = entry.listFiles(module -> module.getName().endsWith(".jar") || new File(module, MODULE_DESCRIPTOR).isFile());
+            if (modules != null) {
+                Arrays.sort(modules);
+                roots.addAll(Arrays.asList(modules));
+            }
+        } else {
+            roots.add(entry);
+        }
+    }
+
+    private void indexJar(Root jar, JarIndexCache cache) {
+        JarIndexCache.JarIndex jarIndex = cache.get(jar.file);
+        if (jarIndex == null) {
+            return;
+        }
+
+        jarIndex.classEntryNames.forEach(entryName -> jarsByEntryName.putIfAbsent(entryName, jar));
+
+        // classes that only exist in the versioned part of a multi-release JAR
+        jarIndex.versionedEntryNames.forEach((classFileName, entryName) -> {
+            if (jarsByEntryName.putIfAbsent(classFileName, jar) == null) {
+                versionedEntryNames.put(classFileName, entryName);
+            }
+        });
+    }
+
+    @Nullable
+    Location find(String classFileName) {
+        Root jar = jarsByEntryName.get(classFileName);
+        int jarPosition = jar == null ? Integer.MAX_VALUE : jar.position;
+
+        for (Root directory : directories) {
+            if (directory.position > jarPosition) {
+                break;
+            }
+            File classFile = new File(directory.file, classFileName);
+            if (classFile.exists()) {
+                return new Location(classFile, null);
+            }
+        }
+
+        if (jar == null) {
+            return null;
+        }
+        return new Location(jar.file, versionedEntryNames.getOrDefault(classFileName, classFileName));
+    }
+
+    private static final class Root {
+
+        private final File file;
+        private final int position;
+
+        private Root(File file, int position) {
+            this.file = file;
+            this.position = position;
+        }
+    }
+
+    static final class Location {
+
+        /**
+         * Either the class file itself, or the JAR containing the class.
+         */
+        final File file;
+
+        @Nullable
+        final String jarEntryName;
+
+        private Location(File file, @Nullable String jarEntryName) {
+            this.file = file;
+            this.jarEntryName = jarEntryName;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.testsreader;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU cache of decompressed JAR entry bytes, keyed by (jar, entry).
+ * <p>
+ * Superclass walks and annotation lookups read the same few classes from the same JARs over and over,
+ * so keeping the inflated bytes around avoids re-opening and re-inflating them in every round.
+ */
+final class JarEntryCache {
+
+    private final long maxBytes;
+    private final Map<Key, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+
+    JarEntryCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Nullable
+    synchronized byte[] get(File jar, String entryName) {
+        return entries.get(new Key(jar, entryName));
+    }
+
+    synchronized void put(File jar, String entryName, byte[] bytes) {
+        if (bytes.length > maxBytes) {
+            return;
+        }
+
+        byte[] previous = entries.put(new Key(jar, entryName), bytes);
+        if (previous != null) {
+            currentBytes -= previous.length;
+        }
+        currentBytes += bytes.length;
+
+        Iterator<byte[]> iterator = entries.values().iterator();
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            currentBytes -= iterator.next().length;
+            iterator.remove();
+        }
+    }
+
+    private static final class Key {
+
+        private final File jar;
+        private final String entryName;
+
+        private Key(File jar, String entryName) {
+            this.jar = jar;
+            this.entryName = entryName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            Key key = (Key) o;
+
+            return jar.equals(key.jar) && entryName.equals(key.entryName);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * jar.hashCode() + entryName.hashCode();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.testsreader;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * LRU cache of the class entries of JARs, shared by the test tasks of a build, see {@link JarIndexCacheService}.
+ * It is bounded by the estimated memory retained by the entry names, as large builds have many test tasks with large classpaths.
+ * <p>
+ * Most test tasks of a build have the same dependencies, so their entries are only listed again
+ * if the JAR's size, modification time or file key changed.
+ */
+public final class JarIndexCache {
+
+    private static final String MULTI_RELEASE_VERSIONS_PREFIX = "META-INF/versions/";
+    private static final long MAX_CACHED_BYTES = 32 * 1024 * 1024;
+
+    // rough object overheads of a 64-bit JVM with compressed references
+    private static final int STRING_OVERHEAD_BYTES = 56;
+    private static final int LIST_ELEMENT_OVERHEAD_BYTES = 4;
+    private static final int MAP_ENTRY_OVERHEAD_BYTES = 40;
+
+    private final long maxBytes;
+    private final Map<File, JarIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+
+    public JarIndexCache() {
+        this(MAX_CACHED_BYTES);
+    }
+
+    JarIndexCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Nullable
+    JarIndex get(File jar) {
+        File key = jar.getAbsoluteFile();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(key.toPath(), BasicFileAttributes.class);
+        } catch (IOException ignored) {
+            // the jar does not exist or cannot be read, move on to the next jar
+            return null;
+        }
+
+        synchronized (this) {
+            JarIndex index = indexes.get(key);
+            if (index != null && index.isUpToDate(attributes)) {
+                return index;
+            }
+        }
+
+        JarIndex index = read(key, attributes);
+        if (index != null) {
+            put(key, index);
+        }
+        return index;
+    }
+
+    private synchronized void put(File jar, JarIndex index) {
+        if (index.estimatedBytes > maxBytes) {
+            return;
+        }
+
+        JarIndex previous = indexes.put(jar, index);
+        if (previous != null) {
+            currentBytes -= previous.estimatedBytes;
+        }
+        currentBytes += index.estimatedBytes;
+
+        Iterator<JarIndex> iterator = indexes.values().iterator();
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            currentBytes -= iterator.next().estimatedBytes;
+            iterator.remove();
+        }
+    }
+
+    @Nullable
+    private static JarIndex read(File jar, BasicFileAttributes attributes) {
+        try (JarFile jarFile = new JarFile(jar)) {
+            List<String> classEntryNames = new ArrayList<>();
+            Map<String, String> versionedEntryNames = new HashMap<>();
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                String entryName = entries.nextElement().getName();
+                if (!entryName.endsWith(".class")) {
+                    continue;
+                }
+
+                if (entryName.startsWith(MULTI_RELEASE_VERSIONS_PREFIX)) {
+                    int versionEnd = entryName.indexOf('/', MULTI_RELEASE_VERSIONS_PREFIX.length());
+                    if (versionEnd > 0) {
+                        versionedEntryNames.putIfAbsent(entryName.substring(versionEnd + 1), entryName);
+                    }
+                } else {
+                    classEntryNames.add(entryName);
+                }
+            }
+            return new JarIndex(attributes, classEntryNames, versionedEntryNames);
+        } catch (IOException ignored) {
+            // we tried... this file looks corrupt, move on to the next jar
+            return null;
+        }
+    }
+
+    static final class JarIndex {
+
+        private final long size;
+        private final FileTime lastModifiedTime;
+        // identifies the file on file systems that support it, so that a replaced jar is detected even if its size and modification time are the same
+        @Nullable
+        private final Object fileKey;
+        private final long estimatedBytes;
+
+        final List<String> classEntryNames;
+
+        /**
+         * The versioned entries of a multi-release JAR, by the class file name they provide.
+         */
+        final Map<String, String> versionedEntryNames;
+
+        private JarIndex(BasicFileAttributes attributes, List<String> classEntryNames, Map<String, String> versionedEntryNames) {
+            this.size = attributes.size();
+            this.lastModifiedTime = attributes.lastModifiedTime();
+            this.fileKey = attributes.fileKey();
+            this.classEntryNames = classEntryNames;
+            this.versionedEntryNames = versionedEntryNames;
+            this.estimatedBytes = estimateBytes(classEntryNames, versionedEntryNames);
+        }
+
+        private boolean isUpToDate(BasicFileAttributes attributes) {
+            return size == attributes.size()
+                && lastModifiedTime.equals(attributes.lastModifiedTime())
+                && Objects.equals(fileKey, attributes.fileKey());
+        }
+
+        private static long estimateBytes(List<String> classEntryNames, Map<String, String> versionedEntryNames) {
+            long bytes = 0;
+            for (String name : classEntryNames) {
+                bytes += LIST_ELEMENT_OVERHEAD_BYTES + estimateBytes(name);
+            }
+            for (Map.Entry<String, String> entry : versionedEntryNames.entrySet()) {
+                bytes += MAP_ENTRY_OVERHEAD_BYTES + estimateBytes(entry.getKey()) + estimateBytes(entry.getValue());
+            }
+            return bytes;
+        }
+
+        private static long estimateBytes(String name) {
+            // the characters of entry names are mostly stored in one byte each, but may need two
+            return STRING_OVERHEAD_BYTES + 2L * name.length();
+        }
+    }
+}
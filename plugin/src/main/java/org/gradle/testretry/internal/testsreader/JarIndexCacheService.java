@@ -0,0 +1,46 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.testsreader;
+
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.api.tasks.testing.Test;
+
+/**
+ * Holds the {@link JarIndexCache} shared by the test tasks of a build, which is discarded when the build finishes.
+ * <p>
+ * Build services are only available with Gradle 6.1 or later.
+ */
+public abstract class JarIndexCacheService implements BuildService<BuildServiceParameters.None> {
+
+    // plugins loaded by different class loaders must not share the service, as they do not share its type
+    private static final String NAME = "testRetryJarIndexCache" + System.identityHashCode(JarIndexCacheService.class.getClassLoader());
+
+    private final JarIndexCache cache = new JarIndexCache();
+
+    public static Provider<JarIndexCache> register(Test task) {
+        Provider<JarIndexCacheService> service = task.getProject().getGradle().getSharedServices()
+            .registerIfAbsent(NAME, JarIndexCacheService.class, spec -> {
+            });
+        task.usesService(service);
+        return service.map(JarIndexCacheService::getCache);
+    }
+
+    public JarIndexCache getCache() {
+        return cache;
+    }
+}
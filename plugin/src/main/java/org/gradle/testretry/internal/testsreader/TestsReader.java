@@ -22,13 +22,17 @@ import org.objectweb.asm.ClassVisitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.util.LinkedHashSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
@@ -38,25 +42,72 @@ import static org.objectweb.asm.Opcodes.ASM7;
 public final class TestsReader {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TestsReader.class);
+    private static final long MAX_CACHED_JAR_ENTRY_BYTES = 16 * 1024 * 1024;
 
     private final Set<File> testClassesDirs;
     private final Iterable<File> classpath;
+    private final Set<File> modulePath = new LinkedHashSet<>();
+    private final JarIndexCache jarIndexCache;
+    private final JarEntryCache jarEntryCache = new JarEntryCache(MAX_CACHED_JAR_ENTRY_BYTES);
+    private ClasspathIndex classpathIndex;
+
+    // lookups for classes that are not available (e.g. annotations from compileOnly dependencies) are repeated
+    // by the different visitors and strategies across all rounds, so misses are remembered for the whole task execution
+    private final Set<String> missingClasses = ConcurrentHashMap.newKeySet();
+    private final Set<String> missingTestClassDirClasses = ConcurrentHashMap.newKeySet();
 
     public TestsReader(Set<File> testClassesDirs, Iterable<File> classpath) {
+        this(testClassesDirs, classpath, new JarIndexCache());
+    }
+
+    public TestsReader(Set<File> testClassesDirs, Iterable<File> classpath, JarIndexCache jarIndexCache) {
         this.testClassesDirs = testClassesDirs;
         this.classpath = classpath;
+        this.jarIndexCache = jarIndexCache;
+    }
+
+    /**
+     * Makes classes on the given module path visible to lookups.
+     * <p>
+     * Module path entries may be modular JARs, exploded modules or directories containing modules.
+     */
+    public synchronized void addModulePath(Iterable<? extends File> modulePath) {
+        modulePath.forEach(this.modulePath::add);
+        classpathIndex = null;
+        missingClasses.clear();
     }
 
     // Finds classes only within the testClassesDir
     public <R> Optional<R> readTestClassDirClass(String className, Supplier<? extends Visitor<R>> factory) {
-        return testClassesDirs.stream()
+        if (missingTestClassDirClasses.contains(className)) {
+            return Optional.empty();
+        }
+
+        return findTestClassDirClassFile(className).map(file -> visitClassFile(file, factory.get()));
+    }
+
+    public boolean containsTestClassDirClass(String className) {
+        return !missingTestClassDirClasses.contains(className) && findTestClassDirClassFile(className).isPresent();
+    }
+
+    private Optional<File> findTestClassDirClassFile(String className) {
+        Optional<File> classFile = testClassesDirs.stream()
             .map(dir -> new File(dir, classFileName(className)))
             .filter(File::exists)
-            .findFirst()
-            .map(file -> visitClassFile(file, factory.get()));
+            .findFirst();
+
+        if (!classFile.isPresent()) {
+            missingTestClassDirClasses.add(className);
+        }
+        return classFile;
     }
 
+    // Finds classes within the testClassesDir and the rest of the classpath
     public <R> Optional<R> readClass(String className, Supplier<? extends Visitor<R>> factory) {
+        if (missingClasses.contains(className)) {
+            return Optional.empty();
+        }
+
         Optional<R> opt = readTestClassDirClass(className, factory);
         if (opt.isPresent()) {
             return opt;
@@ -65,12 +116,81 @@ public final class TestsReader {
         }
     }
 
+    public boolean containsClass(String className) {
+        if (missingClasses.contains(className)) {
+            return false;
+        }
+        if (containsTestClassDirClass(className)) {
+            return true;
+        }
+
+        if (classpathIndex().find(classFileName(className)) == null) {
+            missingClasses.add(className);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads the raw class file of a class within the testClassesDir or the rest of the classpath.
+     */
+    public Optional<byte[]> readClassBytes(String className) {
+        if (missingClasses.contains(className)) {
+            return Optional.empty();
+        }
+
+        if (!missingTestClassDirClasses.contains(className)) {
+            Optional<File> classFile = findTestClassDirClassFile(className);
+            if (classFile.isPresent()) {
+                return classFile.map(TestsReader::readClassFile);
+            }
+        }
+        return Optional.ofNullable(readClasspathClassBytes(className));
+    }
+
+    /**
+     * Returns a stamp of the file that contains the class, which changes whenever the file is rewritten.
+     * For classes in JARs, this is the stamp of the JAR.
+     */
+    public Optional<String> classFileStamp(String className) {
+        if (missingClasses.contains(className)) {
+            return Optional.empty();
+        }
+
+        File file = null;
+        if (!missingTestClassDirClasses.contains(className)) {
+            file = findTestClassDirClassFile(className).orElse(null);
+        }
+        if (file == null) {
+            ClasspathIndex.Location location = classpathIndex().find(classFileName(className));
+            if (location == null) {
+                missingClasses.add(className);
+                return Optional.empty();
+            }
+            file = location.file;
+        }
+        return Optional.of(file.length() + ":" + file.lastModified());
+    }
+
     @Nullable
     private <R> R visitClassFile(File file, Visitor<R> visitor) {
-        try (InputStream in = Files.newInputStream(file.toPath())) {
-            return visit(in, visitor);
+        return visitClassBytes(readClassFile(file), visitor);
+    }
+
+    private static byte[] readClassFile(File file) {
+        try {
+            // the size is known upfront, so this reads straight into a single array
+            // instead of growing a buffer like ClassReader(InputStream) does
+            return Files.readAllBytes(file.toPath());
         } catch (IOException e) {
             throw new UncheckedIOException(e);
+        }
+    }
+
+    @Nullable
+    private <R> R visitClassBytes(byte[] bytes, Visitor<R> visitor) {
+        try {
+            return visit(bytes, visitor);
         } catch (IllegalArgumentException iae) {
             if (iae.getMessage().startsWith("Unsupported class file major version")) {
                 LOGGER.warn("Could not parse class, ignoring for retry", iae);
@@ -80,49 +200,87 @@ public final class TestsReader {
         }
     }
 
-    private <R> R visit(InputStream in, Visitor<R> visitor) throws IOException {
-        ClassReader classReader = new ClassReader(in);
+    private <R> R visit(byte[] bytes, Visitor<R> visitor) {
+        ClassReader classReader = new ClassReader(bytes);
         classReader.accept(visitor, 0);
         return visitor.getResult();
     }
-    // Finds classes within the testClassesDir and the rest of the classpath
 
     private <R> Optional<R> readClasspathClass(String className, Supplier<? extends Visitor<R>> factory) {
-        String classFileName = classFileName(className);
-        for (File file : classpath) {
-            if (!file.exists()) {
-                continue;
-            }
+        byte[] bytes = readClasspathClassBytes(className);
+        return bytes == null ? Optional.empty() : Optional.ofNullable(visitClassBytes(bytes, factory.get()));
+    }
 
-            if (file.isDirectory()) {
-                File classFile = new File(file, classFileName);
-                if (classFile.exists()) {
-                    return Optional.ofNullable(visitClassFile(classFile, factory.get()));
-                } else {
-                    continue;
-                }
-            }
+    @Nullable
+    private byte[] readClasspathClassBytes(String className) {
+        ClasspathIndex.Location location = classpathIndex().find(classFileName(className));
+        if (location == null) {
+            missingClasses.add(className);
+            return null;
+        }
 
-            if (!file.getName().endsWith(".jar")) {
-                continue;
+        if (location.jarEntryName == null) {
+            return readClassFile(location.file);
+        }
+        return readJarEntry(location.file, location.jarEntryName);
+    }
+
+    private synchronized ClasspathIndex classpathIndex() {
+        if (classpathIndex == null) {
+            classpathIndex = ClasspathIndex.of(classpath, modulePath, jarIndexCache);
+        }
+        return classpathIndex;
+    }
+
+    @Nullable
+    private byte[] readJarEntry(File jar, String entryName) {
+        byte[] bytes = jarEntryCache.get(jar, entryName);
+        if (bytes != null) {
+            return bytes;
+        }
+
+        try (JarFile jarFile = new JarFile(jar)) {
+            JarEntry entry = jarFile.getJarEntry(entryName);
+            if (entry == null) {
+                return null;
             }
+            bytes = readJarEntry(jarFile, entry);
+            jarEntryCache.put(jar, entryName, bytes);
+            return bytes;
+        } catch (IOException ignored) {
+            // we tried... this file looks corrupt
+            return null;
+        }
+    }
 
-            try (JarFile jarFile = new JarFile(file)) {
-                Optional<JarEntry> classFile = jarFile.stream()
-                    .filter(maybeClass -> maybeClass.getName().equals(classFileName))
-                    .findAny();
+    private static byte[] readJarEntry(JarFile jarFile, JarEntry entry) throws IOException {
+        try (InputStream in = jarFile.getInputStream(entry)) {
+            long size = entry.getSize();
+            if (size < 0 || size > Integer.MAX_VALUE) {
+                return readUnknownSize(in);
+            }
 
-                if (classFile.isPresent()) {
-                    try (InputStream is = jarFile.getInputStream(classFile.get())) {
-                        return Optional.of(visit(is, factory.get()));
-                    }
+            byte[] bytes = new byte[(int) size];
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = in.read(bytes, offset, bytes.length - offset);
+                if (read < 0) {
+                    throw new EOFException("Unexpected end of " + entry.getName() + " in " + jarFile.getName());
                 }
-            } catch (IOException ignored) {
-                // we tried... this file looks corrupt, move on to the next jar
+                offset += read;
             }
+            return bytes;
         }
+    }
 
-        return Optional.empty();
+    private static byte[] readUnknownSize(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
     }
 
     @NotNull
@@ -16,6 +16,9 @@
 package org.gradle.testretry
 
 import org.gradle.testretry.internal.config.TestRetryTaskExtensionAdapter
+import org.gradle.util.GradleVersion
+
+import static org.junit.Assume.assumeTrue
 
 class CorePluginFuncTest extends AbstractGeneralPluginFuncTest {
 
@@ -62,6 +65,35 @@ class CorePluginFuncTest extends AbstractGeneralPluginFuncTest {
         gradleVersion << GRADLE_VERSIONS_UNDER_TEST
     }
 
+    def "leaves the test task untouched without retries (gradle version #gradleVersion)"() {
+        given:
+        buildFile << """
+            test {
+                ignoreFailures = true
+                retry {
+                    maxRetries = 0
+                }
+                doLast {
+                    def createTestExecuter = Test.getDeclaredMethod("createTestExecuter")
+                    createTestExecuter.accessible = true
+                    println "test executer: \${createTestExecuter.invoke(it).getClass().simpleName}"
+                }
+            }
+        """
+
+        when:
+        failedTest()
+        def result = gradleRunner(gradleVersion).build()
+
+        then:
+        result.output.contains("test executer: DefaultTestExecuter")
+        result.output.count('failedTest FAILED') == 1
+        assertTestReportContains("FailedTests", reportedTestName("failedTest"), 0, 1)
+
+        where:
+        gradleVersion << GRADLE_VERSIONS_UNDER_TEST
+    }
+
     def "retries failed tests (gradle version #gradleVersion)"() {
         given:
         buildFile << """
@@ -192,4 +224,399 @@ class CorePluginFuncTest extends AbstractGeneralPluginFuncTest {
         where:
         gradleVersion << GRADLE_VERSIONS_UNDER_TEST
     }
+
+    def "optionally stops the round once max failures is reached (gradle version #gradleVersion)"() {
+        given:
+        buildFile << """
+            test {
+                retry {
+                    maxRetries = 3
+                    maxFailures = 1
+                    stopOnMaxFailures = true
+                }
+            }
+        """
+
+        when:
+        // the tests run in name order, so the slow test has just started when the first test fails
+        writeJavaTestSource """
+            package acme;
+
+            @org.junit.FixMethodOrder(org.junit.runners.MethodSorters.NAME_ASCENDING)
+            public class FirstTests {
+                @org.junit.Test
+                public void a_failing() throws Exception {
+                    java.nio.file.Files.createFile(java.nio.file.Paths.get("build/marker.file.a_failing"));
+                    throw new RuntimeException("fail me!");
+                }
+
+                @org.junit.Test
+                public void b_slow() throws Exception {
+                    java.nio.file.Files.createFile(java.nio.file.Paths.get("build/marker.file.b_slow"));
+                    Thread.sleep(60_000);
+                }
+
+                @org.junit.Test
+                public void c_later() throws Exception {
+                    java.nio.file.Files.createFile(java.nio.file.Paths.get("build/marker.file.c_later"));
+                }
+            }
+        """
+
+        then:
+        def result = gradleRunner(gradleVersion).buildAndFail()
+        result.output.contains("reaching the configured maxFailures")
+        // 1 initial + 0 retries + 1 overall task FAILED + 1 build FAILED
+        result.output.count('FAILED') == 1 + 0 + 1 + 1
+        // the slow test was stopped while running, and no later test was started
+        result.output.count('b_slow SKIPPED') == 1
+        result.output.count('PASSED') == 0
+        new File(testProjectDir.root, "build/marker.file.b_slow").exists()
+        !new File(testProjectDir.root, "build/marker.file.c_later").exists()
+
+        where:
+        gradleVersion << GRADLE_VERSIONS_UNDER_TEST
+    }
+
+    def "optionally does not retry failed tests that changed since all tests last passed (gradle version #gradleVersion)"() {
+        given:
+        buildFile << """
+            test {
+                retry {
+                    maxRetries = 3
+                    skipRetryOfChangedTests = true
+                }
+            }
+        """
+        changingTest('true')
+        gradleRunner(gradleVersion).build()
+
+        when:
+        changingTest('false')
+
+        then:
+        def result = gradleRunner(gradleVersion).buildAndFail()
+        // 1 initial + 0 retries + 1 overall task FAILED + 1 build FAILED
+        result.output.count('FAILED') == 1 + 0 + 1 + 1
+
+        where:
+        gradleVersion << GRADLE_VERSIONS_UNDER_TEST
+    }
+
+    def "optionally retries the flakiest test classes first based on previous builds (gradle version #gradleVersion)"() {
+        given:
+        buildFile << """
+            test {
+                retry {
+                    maxRetries = 1
+                    retryOrder = org.gradle.testretry.TestRetryTaskExtension.RetryOrder.FLAKIEST_FIRST
+                }
+            }
+        """
+        failedTest()
+        flakyTest()
+
+        when:
+        def firstResult = gradleRunner(gradleVersion).buildAndFail()
+
+        then:
+        // without history, the two failed classes are ranked by name, so the failed class is retried first
+        firstResult.output.lastIndexOf('failedTest FAILED') < firstResult.output.indexOf('flaky PASSED')
+
+        when:
+        new File(testProjectDir.root, "build/marker.file.id").delete()
+        def secondResult = gradleRunner(gradleVersion).buildAndFail()
+
+        then:
+        // the flaky class passed on retry in the first build, so it is retried first
+        secondResult.output.indexOf('flaky PASSED') < secondResult.output.lastIndexOf('failedTest FAILED')
+        secondResult.output.count('failedTest FAILED') == 2
+
+        where:
+        gradleVersion << GRADLE_VERSIONS_UNDER_TEST
+    }
+
+    def "retry policy decides which failures are retried (gradle version #gradleVersion)"() {
+        given:
+        buildFile << """
+            test {
+                retry {
+                    maxRetries = 3
+                    retryPolicy = { failure ->
+                        failure.exceptionClassName == 'java.lang.AssertionError'
+                            ? org.gradle.testretry.RetryPolicy.Decision.SKIP
+                            : org.gradle.testretry.RetryPolicy.Decision.RETRY
+                    } as org.gradle.testretry.RetryPolicy
+                }
+            }
+        """
+
+        when:
+        failedTest()
+        flakyTest()
+
+        then:
+        def result = gradleRunner(gradleVersion).buildAndFail()
+        with(result.output) {
+            it.count('failedTest FAILED') == 1
+            it.count('flaky FAILED') == 1
+            it.count('flaky PASSED') == 1
+        }
+
+        where:
+        gradleVersion << GRADLE_VERSIONS_UNDER_TEST
+    }
+
+    def "retries tests that exceed the per test timeout (gradle version #gradleVersion)"() {
+        given:
+        buildFile << """
+            test {
+                retry {
+                    maxRetries = 1
+                    perTestTimeout = java.time.Duration.ofSeconds(2)
+                }
+            }
+        """
+
+        when:
+        successfulTest()
+        writeJavaTestSource """
+            package acme;
+
+            import java.nio.file.*;
+
+            public class HangingTests {
+                @org.junit.Test
+                public void hangsOnce() throws Exception {
+                    Path marker = Paths.get("build/marker.file.hang");
+                    if (!Files.exists(marker)) {
+                        Files.write(marker, new byte[0]);
+                        Thread.sleep(600_000);
+                    }
+                }
+            }
+        """
+
+        then:
+        def result = gradleRunner(gradleVersion).build()
+        with(result.output) {
+            it.contains("exceeded the configured perTestTimeout")
+            it.contains("java.util.concurrent.TimeoutException")
+            it.count('hangsOnce FAILED') == 1
+            it.count('hangsOnce PASSED') == 1
+        }
+
+        where:
+        gradleVersion << GRADLE_VERSIONS_UNDER_TEST
+    }
+
+    def "retries test classes lost to a crashed test worker (gradle version #gradleVersion)"() {
+        given:
+        buildFile << """
+            test {
+                retry {
+                    maxRetries = 1
+                }
+            }
+        """
+
+        when:
+        successfulTest()
+        writeJavaTestSource """
+            package acme;
+
+            import java.nio.file.*;
+
+            public class CrashingTests {
+                @org.junit.Test
+                public void crashesOnce() throws Exception {
+                    Path marker = Paths.get("build/marker.file.crash");
+                    if (!Files.exists(marker)) {
+                        Files.write(marker, new byte[0]);
+                        System.exit(1);
+                    }
+                }
+            }
+        """
+
+        then:
+        def result = gradleRunner(gradleVersion).build()
+        with(result.output) {
+            it.contains("exited unexpectedly while executing [acme.CrashingTests]")
+            it.count('crashesOnce FAILED') == 1
+            it.count('crashesOnce PASSED') == 1
+            it.count('successTest PASSED') == 1
+        }
+
+        where:
+        gradleVersion << GRADLE_VERSIONS_UNDER_TEST
+    }
+
+    def "fails the build when a test worker keeps crashing (gradle version #gradleVersion)"() {
+        given:
+        buildFile << """
+            test {
+                retry {
+                    maxRetries = 2
+                }
+            }
+        """
+
+        when:
+        writeJavaTestSource """
+            package acme;
+
+            public class CrashingTests {
+                @org.junit.Test
+                public void alwaysCrashes() {
+                    System.exit(1);
+                }
+            }
+        """
+
+        then:
+        def result = gradleRunner(gradleVersion).buildAndFail()
+        with(result.output) {
+            // 1 initial + 2 retries
+            it.count("exited unexpectedly while executing [acme.CrashingTests]") == 1 + 2
+            it.count('alwaysCrashes PASSED') == 0
+        }
+
+        where:
+        gradleVersion << GRADLE_VERSIONS_UNDER_TEST
+    }
+
+    def "retry rounds use the retry fork options (gradle version #gradleVersion)"() {
+        given:
+        buildFile << """
+            test {
+                retry {
+                    maxRetries = 1
+                    retryFork {
+                        maxHeapSize = '256m'
+                        jvmArgs = ['-Dretry.round=true']
+                        forkEvery = 1
+                    }
+                }
+            }
+        """
+
+        when:
+        writeJavaTestSource """
+            package acme;
+
+            import static org.junit.Assert.assertTrue;
+
+            public class ForkOptionsTests {
+                @org.junit.Test
+                public void passesInRetryFork() {
+                    assertTrue(Boolean.getBoolean("retry.round"));
+                    assertTrue(Runtime.getRuntime().maxMemory() <= 256L * 1024 * 1024);
+                }
+            }
+        """
+
+        then:
+        def result = gradleRunner(gradleVersion).build()
+        with(result.output) {
+            it.count('passesInRetryFork FAILED') == 1
+            it.count('passesInRetryFork PASSED') == 1
+        }
+
+        where:
+        gradleVersion << GRADLE_VERSIONS_UNDER_TEST
+    }
+
+    def "retry rounds run with class data sharing enabled (gradle version #gradleVersion)"() {
+        given:
+        assumeTrue("the Java version of the test worker JVMs is only known to Gradle 6.7 or later", GradleVersion.version(gradleVersion) >= GradleVersion.version("6.7"))
+        assumeTrue("class data sharing archives are only created automatically by Java 19 or later", effectiveTestJavaMajorVersion() >= 19)
+        buildFile << """
+            test {
+                retry {
+                    maxRetries = 1
+                    retryFork {
+                        classDataSharing = true
+                    }
+                }
+            }
+        """
+
+        when:
+        flakyTest()
+
+        then:
+        def result = gradleRunner(gradleVersion).build()
+        with(result.output) {
+            it.count('flaky FAILED') == 1
+            it.count('flaky PASSED') == 1
+        }
+
+        and:
+        new File(testProjectDir.root, "build/tmp/test/retry-class-data.jsa").exists()
+
+        where:
+        gradleVersion << GRADLE_VERSIONS_UNDER_TEST
+    }
+
+    def "retries unrelated flaky tests with canary retries enabled (gradle version #gradleVersion)"() {
+        given:
+        buildFile << """
+            test {
+                retry {
+                    maxRetries = 3
+                    canaryRetries = true
+                }
+            }
+        """
+
+        when:
+        def tests = (1..12).collect { i ->
+            """
+                @org.junit.Test
+                public void flaky${i}() throws Exception {
+                    Path marker = Paths.get("build/marker.file.flaky${i}");
+                    boolean retried = Files.exists(marker);
+                    if (!retried) {
+                        Files.write(marker, new byte[0]);
+                    }
+                    org.junit.Assert.assertTrue(retried);
+                }
+            """
+        }.join()
+        writeJavaTestSource """
+            package acme;
+
+            import java.nio.file.*;
+
+            public class UnrelatedFlakyTests {
+                ${tests}
+            }
+        """
+
+        then:
+        def result = gradleRunner(gradleVersion).build()
+        (1..12).each { i ->
+            assert result.output.count("flaky${i} FAILED") == 1
+            assert result.output.count("flaky${i} PASSED") == 1
+        }
+
+        where:
+        gradleVersion << GRADLE_VERSIONS_UNDER_TEST
+    }
+
+    private void changingTest(String assertion) {
+        writeJavaTestSource """
+            package acme;
+
+            import static org.junit.Assert.assertTrue;
+
+            public class ChangingTests {
+                @org.junit.Test
+                public void changingTest() {
+                    assertTrue($assertion);
+                }
+            }
+        """
+    }
 }
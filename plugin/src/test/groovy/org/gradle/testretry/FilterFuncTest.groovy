@@ -134,6 +134,40 @@ class FilterFuncTest extends AbstractGeneralPluginFuncTest {
         gradleVersion << GRADLE_VERSIONS_UNDER_TEST
     }
 
+    def "can filter what is retried by exception (gradle version #gradleVersion)"() {
+        given:
+        buildFile << """
+            test.retry {
+                maxRetries = 2
+                filter {
+                    includeExceptionClasses.add("java.io.IOException")
+                    includeExceptionMessages.add("timed out")
+                }
+            }
+        """
+
+        and:
+        failingTest("TimeoutTest", 'new java.net.SocketTimeoutException("Read timed out")')
+        failingTest("OtherIoTest", 'new java.io.IOException("Connection refused")')
+        failingTest("AssertionTest", 'new AssertionError("Read timed out")')
+
+        when:
+        def result = gradleRunner(gradleVersion).buildAndFail()
+
+        then:
+        with(result.output) {
+            it.count("TimeoutTest > flakyTest FAILED") == 2
+            it.count("TimeoutTest > flakyTest PASSED") == 1
+            it.count("OtherIoTest > flakyTest FAILED") == 1
+            it.count("OtherIoTest > flakyTest PASSED") == 0
+            it.count("AssertionTest > flakyTest FAILED") == 1
+            it.count("AssertionTest > flakyTest PASSED") == 0
+        }
+
+        where:
+        gradleVersion << GRADLE_VERSIONS_UNDER_TEST
+    }
+
     private void nonInheritedAnnotation(String name) {
         file("src/test/java/acme/${name}.java") << """
             package acme;
@@ -177,4 +211,20 @@ class FilterFuncTest extends AbstractGeneralPluginFuncTest {
         """
         return name
     }
+
+    private void failingTest(String name, String exception) {
+        file("src/test/java/acme/${name}.java") << """
+            package acme;
+            public class $name {
+                @org.junit.Test
+                public void flakyTest() throws Exception {
+                    try {
+                        ${flakyAssert(name, 2)}
+                    } catch (RuntimeException e) {
+                        throw $exception;
+                    }
+                }
+            }
+        """
+    }
 }
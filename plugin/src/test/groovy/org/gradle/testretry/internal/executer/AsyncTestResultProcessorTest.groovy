@@ -0,0 +1,59 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.executer
+
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import spock.lang.Specification
+
+class AsyncTestResultProcessorTest extends Specification {
+
+    def "forwards all events in order before close returns"() {
+        given:
+        def delegate = Mock(TestResultProcessor)
+        def processor = new AsyncTestResultProcessor(delegate)
+        def descriptors = (1..2000).collect { id -> Stub(TestDescriptorInternal) { getId() >> id } }
+
+        when:
+        descriptors.each { processor.started(it, new TestStartEvent(0)) }
+        descriptors.each { processor.completed(it.id, new TestCompleteEvent(0)) }
+        processor.close()
+
+        then:
+        descriptors.each { descriptor -> 1 * delegate.started(descriptor, _) }
+
+        then:
+        descriptors.each { descriptor -> 1 * delegate.completed(descriptor.id, _) }
+    }
+
+    def "rethrows failures of the delegate on close"() {
+        given:
+        def delegate = Mock(TestResultProcessor) {
+            completed(_, _) >> { throw new IllegalStateException("boom") }
+        }
+        def processor = new AsyncTestResultProcessor(delegate)
+
+        when:
+        processor.completed(1, new TestCompleteEvent(0))
+        processor.close()
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message == "boom"
+    }
+}
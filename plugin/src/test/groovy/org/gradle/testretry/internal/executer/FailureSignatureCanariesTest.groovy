@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.executer
+
+import spock.lang.Specification
+import spock.lang.Subject
+
+import static org.gradle.testretry.internal.executer.FailureSignatureCanaries.CANARIES_PER_GROUP
+import static org.gradle.testretry.internal.executer.FailureSignatureCanaries.MIN_GROUP_SIZE
+
+class FailureSignatureCanariesTest extends Specification {
+
+    @Subject
+    def canaries = new FailureSignatureCanaries()
+
+    def failedTests = new TestNames()
+
+    def "holds back all but a few canaries of large groups with the same failure signature"() {
+        given:
+        def failure = new IllegalStateException("connection refused", new ConnectException("port 1234"))
+        fail(MIN_GROUP_SIZE, "Db", { failure })
+        fail(3, "Other", { new AssertionError("expected ${it}") })
+
+        when:
+        canaries.holdBack(failedTests)
+
+        then:
+        count("Db") == CANARIES_PER_GROUP
+        count("Other") == 3
+        canaries.hasHeldBackTests()
+    }
+
+    def "keeps groups below the minimum size"() {
+        given:
+        def failure = new ConnectException()
+        fail(MIN_GROUP_SIZE - 1, "Db", { failure })
+
+        when:
+        canaries.holdBack(failedTests)
+
+        then:
+        count("Db") == MIN_GROUP_SIZE - 1
+        !canaries.hasHeldBackTests()
+    }
+
+    def "releases the held back tests once the canaries pass"() {
+        given:
+        def failure = new ConnectException()
+        fail(MIN_GROUP_SIZE, "Db", { failure })
+        canaries.holdBack(failedTests)
+        def canaryTests = failedTests.stream().flatMap { entry -> entry.value.stream() }.toList()
+
+        when:
+        def stillFailing = new TestNames()
+        stillFailing.add("Db", canaryTests[0])
+        canaries.releasePassed(stillFailing)
+
+        then:
+        stillFailing.size() == 1
+        canaries.hasHeldBackTests()
+
+        when:
+        def passed = new TestNames()
+        canaries.releasePassed(passed)
+
+        then:
+        passed.size() == MIN_GROUP_SIZE - CANARIES_PER_GROUP
+        !passed.contains("Db", canaryTests[0])
+        !canaries.hasHeldBackTests()
+    }
+
+    private void fail(int count, String className, Closure<Throwable> failure) {
+        (1..count).each {
+            failedTests.add(className, "test${it}")
+            canaries.recordFailure(className, "test${it}", failure(it))
+        }
+    }
+
+    private int count(String className) {
+        failedTests.stream().filter { it.key == className }.mapToInt { it.value.size() }.sum()
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.executer
+
+import org.gradle.testretry.RetryPolicy
+import spock.lang.Specification
+
+import java.time.Duration
+
+import static org.gradle.testretry.RetryPolicy.Decision.RETRY
+import static org.gradle.testretry.RetryPolicy.Decision.SKIP
+
+class GuardedRetryPolicyTest extends Specification {
+
+    def policy = Mock(RetryPolicy)
+    def guardedPolicy = new GuardedRetryPolicy(policy)
+
+    def "passes the failure to the policy"() {
+        when:
+        def decision = guardedPolicy.decide("Test", "test()", new IllegalStateException("failed"), 2, Duration.ofSeconds(1))
+
+        then:
+        1 * policy.decide({ RetryPolicy.Failure failure ->
+            failure.className == "Test" && failure.testName == "test()" && failure.exceptionClassName == IllegalStateException.name &&
+                failure.message == "failed" && failure.attempt == 2 && failure.elapsedRoundTime == Duration.ofSeconds(1)
+        }) >> SKIP
+        decision == SKIP
+    }
+
+    def "calls the policy for each failure"() {
+        given:
+        def failure = new IllegalStateException()
+
+        when:
+        def decisions = (1..2).collect { guardedPolicy.decide("Test", "test${it}()", failure, 1, Duration.ZERO) }
+
+        then:
+        2 * policy.decide(_) >> { RetryPolicy.Failure f -> f.testName == "test1()" ? RETRY : SKIP }
+        decisions == [RETRY, SKIP]
+    }
+
+    def "retries if the policy does not decide"() {
+        when:
+        def decision = guardedPolicy.decide("Test", "test()", new AssertionError(), 1, Duration.ZERO)
+
+        then:
+        1 * policy.decide(_) >> null
+        decision == RETRY
+    }
+
+    def "retries if the policy fails"() {
+        when:
+        def decision = guardedPolicy.decide("Test", "test()", new AssertionError(), 1, Duration.ZERO)
+
+        then:
+        1 * policy.decide(_) >> { throw new IllegalArgumentException() }
+        decision == RETRY
+    }
+}
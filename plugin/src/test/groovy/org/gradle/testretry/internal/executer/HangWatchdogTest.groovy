@@ -0,0 +1,67 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.executer
+
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+
+class HangWatchdogTest extends Specification {
+
+    def timeouts = new AtomicInteger()
+    def watchdog = new HangWatchdog(Duration.ofMillis(500), { timeouts.incrementAndGet() })
+
+    def cleanup() {
+        watchdog.close()
+    }
+
+    def "detects tests running longer than the timeout once per round"() {
+        given:
+        def now = System.currentTimeMillis()
+
+        when:
+        watchdog.started("hanging1", now - 1000)
+        watchdog.started("hanging2", now - 1000)
+        watchdog.started("running", now + 60_000)
+
+        then:
+        new PollingConditions(timeout: 5).eventually {
+            watchdog.hasTimedOut("hanging1")
+            watchdog.hasTimedOut("hanging2")
+        }
+        timeouts.get() == 1
+        !watchdog.hasTimedOut("running")
+
+        when:
+        watchdog.reset()
+
+        then:
+        !watchdog.hasTimedOutTests()
+    }
+
+    def "ignores completed tests"() {
+        when:
+        watchdog.started("completed", System.currentTimeMillis() - 1000)
+        watchdog.completed("completed")
+        Thread.sleep(300)
+
+        then:
+        !watchdog.hasTimedOutTests()
+        timeouts.get() == 0
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.executer
+
+import org.gradle.api.file.FileTree
+import org.gradle.api.tasks.util.PatternSet
+import org.gradle.testretry.internal.testsreader.TestsReader
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+class RetryCandidateClassFilesTest extends Specification {
+
+    @Rule
+    TemporaryFolder dir = new TemporaryFolder()
+
+    def candidates = Mock(FileTree)
+    def narrowed = Mock(FileTree)
+
+    def "narrows the candidates to the failed classes and their nested classes without scanning them"() {
+        given:
+        classFiles("acme/Outer.class", "acme/Outer\$Nested.class")
+        PatternSet patterns = null
+
+        when:
+        def result = RetryCandidateClassFiles.narrow(candidates, ["acme.Outer\$Nested"] as Set, testsReader())
+
+        then:
+        1 * candidates.matching(_ as PatternSet) >> { PatternSet p ->
+            patterns = p
+            narrowed
+        }
+        0 * candidates._
+        0 * narrowed._
+        result.is(narrowed)
+        patterns.includes == ["acme/Outer.class", "acme/Outer\$*.class"] as Set
+    }
+
+    def "does not narrow the candidates if failed classes are not in the test classes dirs"() {
+        given:
+        classFiles("acme/Outer.class")
+
+        when:
+        def result = RetryCandidateClassFiles.narrow(candidates, ["acme.Outer", "acme.MissingFeature"] as Set, testsReader())
+
+        then:
+        0 * candidates._
+        result == null
+    }
+
+    private TestsReader testsReader() {
+        new TestsReader([dir.root] as Set, [])
+    }
+
+    private void classFiles(String... paths) {
+        paths.each { path ->
+            def file = new File(dir.root, path)
+            file.parentFile.mkdirs()
+            file.bytes = new byte[1]
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.executer
+
+import org.gradle.testretry.internal.history.TestHistory
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import static org.gradle.testretry.TestRetryTaskExtension.RetryOrder.DISCOVERY
+import static org.gradle.testretry.TestRetryTaskExtension.RetryOrder.FLAKIEST_FIRST
+import static org.gradle.testretry.TestRetryTaskExtension.RetryOrder.SHORTEST_FIRST
+
+class RetryRoundOrderingTest extends Specification {
+
+    @Rule
+    TemporaryFolder dir = new TemporaryFolder()
+
+    def failedTests = new TestNames()
+
+    def setup() {
+        ["A", "B", "C", "D"].each { failedTests.add(it, "test") }
+    }
+
+    def "keeps the default order for discovery order"() {
+        expect:
+        RetryRoundOrdering.classesToRunFirst(DISCOVERY, failedTests, [:], null) == null
+    }
+
+    def "runs the shorter half of the failed classes first"() {
+        expect:
+        RetryRoundOrdering.classesToRunFirst(SHORTEST_FIRST, failedTests, [A: 300L, B: 10L, C: 200L, D: 20L], null) == ["B", "D"] as Set
+    }
+
+    def "ranks classes without a duration last"() {
+        expect:
+        RetryRoundOrdering.classesToRunFirst(SHORTEST_FIRST, failedTests, [C: 300L], null) == ["C", "A"] as Set
+    }
+
+    def "runs the flakiest half of the failed classes first"() {
+        given:
+        def file = new File(dir.root, "history.properties")
+        def history = TestHistory.load(file)
+        history.recordExecution("C", true)
+        history.recordExecution("D", true)
+        history.recordExecution("D", false)
+        history.recordExecution("A", false)
+        history.store()
+
+        expect:
+        RetryRoundOrdering.classesToRunFirst(FLAKIEST_FIRST, failedTests, [:], TestHistory.load(file)) == ["C", "D"] as Set
+    }
+}
@@ -45,6 +45,19 @@ class TestNamesTest extends Specification {
         methodsFor("TestClass") ==~ ["test2()"]
     }
 
+    def "adding tests to a class that is retried as a whole keeps retrying the whole class"() {
+        given:
+        testNames.addClass("TestClass")
+
+        when:
+        testNames.add("TestClass", "test1()")
+        testNames.addAll("TestClass", ["test2()"] as Set)
+
+        then:
+        methodsFor("TestClass").isEmpty()
+        testNames.hasClassesWithoutTestNames()
+    }
+
     def "hasClassesWithoutTestNames works properly"() {
         when:
         testNames.add("TestClass", "test()")
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.executer.framework
+
+import org.gradle.testretry.internal.testsreader.TestsReader
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+class Junit5TestFrameworkStrategyTest extends Specification {
+
+    @Rule
+    TemporaryFolder dir = new TemporaryFolder()
+
+    def "may run tests through other classes if the suite engine is available"() {
+        given:
+        def classesDir = dir.newFolder("classes")
+        def suiteEngine = new File(classesDir, "org/junit/platform/suite/engine/SuiteTestEngine.class")
+        suiteEngine.parentFile.mkdirs()
+        suiteEngine.bytes = new byte[1]
+
+        expect:
+        new Junit5TestFrameworkStrategy(false).mayRunTestsThroughOtherClasses(new TestsReader([classesDir] as Set, []))
+        !new Junit5TestFrameworkStrategy(false).mayRunTestsThroughOtherClasses(new TestsReader([dir.newFolder("other")] as Set, []))
+    }
+}
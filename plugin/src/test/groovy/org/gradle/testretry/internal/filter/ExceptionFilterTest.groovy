@@ -0,0 +1,82 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.filter
+
+import spock.lang.Specification
+
+class ExceptionFilterTest extends Specification {
+
+    List<String> includeExceptionClasses = []
+    List<String> excludeExceptionClasses = []
+    List<String> includeExceptionMessages = []
+
+    def "empty filter allows all"() {
+        expect:
+        with(filter()) {
+            canRetry(new AssertionError())
+            canRetry(new SocketTimeoutException())
+        }
+    }
+
+    def "must match include pattern by type, superclass or cause"() {
+        when:
+        includeExceptionClasses << "java.io.IOException"
+
+        then:
+        with(filter()) {
+            canRetry(new IOException())
+            canRetry(new SocketTimeoutException())
+            canRetry(new IllegalStateException(new SocketTimeoutException()))
+            !canRetry(new AssertionError())
+        }
+    }
+
+    def "must not match exclude pattern"() {
+        when:
+        excludeExceptionClasses << "*AssertionError"
+
+        then:
+        with(filter()) {
+            !canRetry(new AssertionError())
+            canRetry(new SocketTimeoutException())
+        }
+    }
+
+    def "must match message pattern"() {
+        when:
+        includeExceptionMessages << "Connection (refused|reset)"
+
+        then:
+        with(filter()) {
+            canRetry(new ConnectException("Connection refused: localhost/127.0.0.1:5432"))
+            canRetry(new RuntimeException("wrapped", new IOException("Connection reset")))
+            !canRetry(new AssertionError("expected 1 but was 2"))
+            !canRetry(new IOException())
+        }
+    }
+
+    def "allows tests without a failure"() {
+        when:
+        includeExceptionClasses << "java.io.IOException"
+
+        then:
+        filter().canRetry(null)
+    }
+
+    ExceptionFilter filter() {
+        new ExceptionFilter(includeExceptionClasses, excludeExceptionClasses, includeExceptionMessages)
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.filter
+
+import spock.lang.Specification
+
+class FailureSignaturesTest extends Specification {
+
+    def "signature ignores the message but not the origin of the root cause"() {
+        expect:
+        FailureSignatures.signature(new RuntimeException(new ConnectException("port 1"))) ==
+            FailureSignatures.signature(new RuntimeException(new ConnectException("port 2")))
+        FailureSignatures.signature(new ConnectException()) != FailureSignatures.signature(otherOrigin())
+    }
+
+    def "signature ignores frames of assertion libraries"() {
+        expect:
+        FailureSignatures.signature(assertionFailure("test1")) != FailureSignatures.signature(assertionFailure("test2"))
+        FailureSignatures.signature(assertionFailure("test1")) == FailureSignatures.signature(assertionFailure("test1"))
+    }
+
+    def "exception class name excludes the message"() {
+        expect:
+        FailureSignatures.exceptionClassName(new IllegalStateException("failed: twice")) == IllegalStateException.name
+        FailureSignatures.exceptionClassName(new IllegalStateException()) == IllegalStateException.name
+    }
+
+    private static Throwable assertionFailure(String testName) {
+        def failure = new AssertionError("expected true")
+        failure.stackTrace = [
+            new StackTraceElement("org.junit.Assert", "fail", "Assert.java", 89),
+            new StackTraceElement("org.junit.Assert", "assertTrue", "Assert.java", 42),
+            new StackTraceElement("acme.SomeTests", testName, "SomeTests.java", 10),
+            new StackTraceElement("java.lang.reflect.Method", "invoke", "Method.java", 498),
+        ] as StackTraceElement[]
+        failure
+    }
+
+    private static Throwable otherOrigin() {
+        new ConnectException()
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.testsreader
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.IgnoreIf
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.nio.file.attribute.BasicFileAttributes
+import java.util.jar.JarEntry
+import java.util.jar.JarOutputStream
+
+class ClasspathIndexTest extends Specification {
+
+    @Rule
+    TemporaryFolder dir = new TemporaryFolder()
+
+    def "finds classes in directories and jars in classpath order"() {
+        given:
+        def classes = dir.newFolder("classes")
+        classFile(classes, "a/A.class")
+        def first = jar("first.jar", "a/A.class", "b/B.class")
+        def second = jar("second.jar", "b/B.class", "c/C.class")
+
+        when:
+        def index = ClasspathIndex.of([classes, first, second], [], new JarIndexCache())
+
+        then:
+        with(index.find("a/A.class")) {
+            file == new File(classes, "a/A.class")
+            jarEntryName == null
+        }
+        with(index.find("b/B.class")) {
+            file == first
+            jarEntryName == "b/B.class"
+        }
+        index.find("c/C.class").file == second
+        index.find("d/D.class") == null
+    }
+
+    def "finds classes that only exist in the versioned part of a multi-release jar"() {
+        given:
+        def multiRelease = jar("mr.jar", "a/A.class", "META-INF/versions/9/a/A.class", "META-INF/versions/11/b/B.class")
+
+        when:
+        def index = ClasspathIndex.of([multiRelease], [], new JarIndexCache())
+
+        then:
+        index.find("a/A.class").jarEntryName == "a/A.class"
+        index.find("b/B.class").jarEntryName == "META-INF/versions/11/b/B.class"
+    }
+
+    def "finds classes in modular jars, exploded modules and directories of modules on the module path"() {
+        given:
+        def modularJar = jar("modular.jar", "module-info.class", "a/A.class")
+        def explodedModule = dir.newFolder("exploded")
+        classFile(explodedModule, "module-info.class")
+        classFile(explodedModule, "b/B.class")
+        def modulesDir = dir.newFolder("modules")
+        jar("modules/nested.jar", "module-info.class", "c/C.class")
+        def nestedExploded = new File(modulesDir, "nested-exploded")
+        classFile(nestedExploded, "module-info.class")
+        classFile(nestedExploded, "d/D.class")
+
+        when:
+        def index = ClasspathIndex.of([], [modularJar, explodedModule, modulesDir], new JarIndexCache())
+
+        then:
+        index.find("a/A.class").file == modularJar
+        index.find("b/B.class").file == new File(explodedModule, "b/B.class")
+        index.find("c/C.class").file == new File(modulesDir, "nested.jar")
+        index.find("d/D.class").file == new File(nestedExploded, "d/D.class")
+    }
+
+    def "reuses the entries of unchanged jars and reindexes changed ones"() {
+        given:
+        def cache = new JarIndexCache(100_000)
+        def lib = jar("lib.jar", "a/A.class")
+        def lastModified = lib.lastModified()
+        def first = cache.get(lib)
+
+        expect:
+        cache.get(lib).is(first)
+        ClasspathIndex.of([lib], [], cache).find("a/A.class").file == lib
+
+        when:
+        jar("lib.jar", "a/A.class", "b/B.class")
+        lib.lastModified = lastModified + 1000
+
+        then:
+        !cache.get(lib).is(first)
+        ClasspathIndex.of([lib], [], cache).find("b/B.class").file == lib
+    }
+
+    @IgnoreIf({ Files.readAttributes(new File(".").toPath(), BasicFileAttributes).fileKey() == null })
+    def "reindexes jars that were replaced with the same size and modification time"() {
+        given:
+        def cache = new JarIndexCache(100_000)
+        def lib = jar("lib.jar", "a/A.class")
+        def first = cache.get(lib)
+
+        when:
+        def replacement = jar("replacement.jar", "b/B.class")
+        replacement.lastModified = lib.lastModified()
+        Files.move(replacement.toPath(), lib.toPath(), StandardCopyOption.REPLACE_EXISTING)
+
+        then:
+        !cache.get(lib).is(first)
+        ClasspathIndex.of([lib], [], cache).find("b/B.class").file == lib
+    }
+
+    def "evicts the least recently used indexes once their estimated size exceeds the limit"() {
+        given:
+        def cache = new JarIndexCache(1_000)
+        def first = jar("first.jar", (1..10).collect { "a/A${it}.class" } as String[])
+        def second = jar("second.jar", (1..10).collect { "b/B${it}.class" } as String[])
+        def firstIndex = cache.get(first)
+        def secondIndex = cache.get(second)
+
+        expect:
+        cache.get(second).is(secondIndex)
+        !cache.get(first).is(firstIndex)
+    }
+
+    def "does not cache indexes exceeding the limit"() {
+        given:
+        def cache = new JarIndexCache(100)
+        def lib = jar("lib.jar", "a/A.class", "b/B.class")
+
+        expect:
+        !cache.get(lib).is(cache.get(lib))
+    }
+
+    private File jar(String path, String... entries) {
+        def file = new File(dir.root, path)
+        file.parentFile.mkdirs()
+        new JarOutputStream(new FileOutputStream(file)).withCloseable { out ->
+            entries.each {
+                out.putNextEntry(new JarEntry(it))
+                out.write(new byte[1])
+                out.closeEntry()
+            }
+        }
+        file
+    }
+
+    private static File classFile(File root, String path) {
+        def file = new File(root, path)
+        file.parentFile.mkdirs()
+        file.bytes = new byte[1]
+        file
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.testsreader
+
+import spock.lang.Specification
+
+class JarEntryCacheTest extends Specification {
+
+    def jar = new File("lib.jar")
+    def otherJar = new File("other.jar")
+
+    def "entries are keyed by jar and entry name"() {
+        given:
+        def cache = new JarEntryCache(100)
+
+        when:
+        cache.put(jar, "a/A.class", new byte[10])
+
+        then:
+        cache.get(jar, "a/A.class").length == 10
+        cache.get(otherJar, "a/A.class") == null
+        cache.get(jar, "a/B.class") == null
+    }
+
+    def "evicts least recently used entries once the size bound is exceeded"() {
+        given:
+        def cache = new JarEntryCache(25)
+        cache.put(jar, "A.class", new byte[10])
+        cache.put(jar, "B.class", new byte[10])
+
+        when:
+        cache.get(jar, "A.class")
+        cache.put(jar, "C.class", new byte[10])
+
+        then:
+        cache.get(jar, "A.class") != null
+        cache.get(jar, "B.class") == null
+        cache.get(jar, "C.class") != null
+    }
+
+    def "does not cache entries larger than the bound"() {
+        given:
+        def cache = new JarEntryCache(5)
+
+        when:
+        cache.put(jar, "Big.class", new byte[10])
+
+        then:
+        cache.get(jar, "Big.class") == null
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.testretry.internal.testsreader
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import spock.lang.Specification
+
+class TestsReaderTest extends Specification {
+
+    @Rule
+    TemporaryFolder dir = new TemporaryFolder()
+
+    File classesDir
+    File libDir
+
+    def setup() {
+        classesDir = dir.newFolder("classes")
+        libDir = dir.newFolder("lib")
+    }
+
+    def "looks up classes missing from the test classes dirs only once"() {
+        given:
+        def reader = testsReader()
+
+        expect:
+        !reader.readTestClassDirClass("acme.Missing", { new NameVisitor() }).present
+
+        when:
+        classFile(classesDir, "acme/Missing")
+
+        then:
+        !reader.readTestClassDirClass("acme.Missing", { new NameVisitor() }).present
+        testsReader().readTestClassDirClass("acme.Missing", { new NameVisitor() }).get() == "acme/Missing"
+    }
+
+    def "looks up classes missing from the classpath only once"() {
+        given:
+        def reader = testsReader()
+
+        expect:
+        !reader.readClass("acme.Missing", { new NameVisitor() }).present
+
+        when:
+        classFile(libDir, "acme/Missing")
+
+        then:
+        !reader.readClass("acme.Missing", { new NameVisitor() }).present
+        !reader.containsClass("acme.Missing")
+        testsReader().readClass("acme.Missing", { new NameVisitor() }).get() == "acme/Missing"
+    }
+
+    def "looks up missing classes again once the module path is added"() {
+        given:
+        def reader = testsReader()
+        def beforeAdding = reader.readClass("acme.Missing", { new NameVisitor() })
+        classFile(libDir, "acme/Missing")
+
+        when:
+        reader.addModulePath([])
+
+        then:
+        !beforeAdding.present
+        reader.readClass("acme.Missing", { new NameVisitor() }).get() == "acme/Missing"
+    }
+
+    private TestsReader testsReader() {
+        new TestsReader([classesDir] as Set, [libDir])
+    }
+
+    private static void classFile(File root, String internalName) {
+        def writer = new ClassWriter(0)
+        writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, internalName, null, "java/lang/Object", null)
+        writer.visitEnd()
+
+        def file = new File(root, "${internalName}.class")
+        file.parentFile.mkdirs()
+        file.bytes = writer.toByteArray()
+    }
+
+    static class NameVisitor extends TestsReader.Visitor<String> {
+
+        private String name
+
+        @Override
+        void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            this.name = name
+        }
+
+        @Override
+        String getResult() {
+            name
+        }
+    }
+}
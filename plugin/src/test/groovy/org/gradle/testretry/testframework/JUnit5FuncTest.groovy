@@ -636,6 +636,47 @@ class JUnit5FuncTest extends AbstractFrameworkFuncTest {
         gradleVersion << GRADLE_VERSIONS_UNDER_TEST
     }
 
+    def "retries the whole class if most of its methods failed (gradle version #gradleVersion)"() {
+        given:
+        buildFile << """
+            test.retry.maxRetries = 1
+        """
+
+        writeJavaTestSource """
+            package acme;
+
+            import org.junit.jupiter.api.*;
+
+            public class MostlyFailingTest {
+                @Test
+                void testOk() {
+                }
+
+                ${(1..10).collect { """
+                @Test
+                void testFlaky${it}() {
+                    ${flakyAssert("flaky${it}")}
+                }
+                """ }.join()}
+            }
+        """
+
+        when:
+        def result = gradleRunner(gradleVersion).build()
+
+        then:
+        with(result.output) {
+            it.count('testOk() PASSED') == 2
+            it.count('testFlaky1() FAILED') == 1
+            it.count('testFlaky1() PASSED') == 1
+            it.count('testFlaky10() FAILED') == 1
+            it.count('testFlaky10() PASSED') == 1
+        }
+
+        where:
+        gradleVersion << GRADLE_VERSIONS_UNDER_TEST
+    }
+
     def "can rerun the whole @Nested class via className (gradle version #gradleVersion)"() {
         given:
         buildFile << """